@@ -88,15 +88,31 @@ public class BukkitPlatform implements BackendPlatform {
 
     private final boolean modernOnlinePlayers;
 
+    /** Batched evaluation of placeholders requiring main thread */
+    private final SyncPlaceholderBatch syncPlaceholderBatch;
+
     /**
      * Constructs new instance with given plugin.
      *
      * @param   plugin
      *          Plugin
      */
-    @SneakyThrows
     public BukkitPlatform(@NotNull JavaPlugin plugin) {
+        this(plugin, false);
+    }
+
+    /**
+     * Constructs new instance with given parameters.
+     *
+     * @param   plugin
+     *          Plugin
+     * @param   folia
+     *          {@code true} if server is running Folia, {@code false} if not
+     */
+    @SneakyThrows
+    protected BukkitPlatform(@NotNull JavaPlugin plugin, boolean folia) {
         this.plugin = plugin;
+        syncPlaceholderBatch = new SyncPlaceholderBatch(this, folia);
         modernOnlinePlayers = Bukkit.class.getMethod("getOnlinePlayers").getReturnType() == Collection.class;
         try {
             Object server = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
@@ -270,13 +286,8 @@ public class BukkitPlatform implements BackendPlatform {
         String syncedPlaceholder = "%" + identifier.substring(6);
         PlayerPlaceholderImpl[] ppl = new PlayerPlaceholderImpl[1];
         ppl[0] = TAB.getInstance().getPlaceholderManager().registerPlayerPlaceholder(identifier, p -> {
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                long time = System.nanoTime();
-                ppl[0].updateValue(p, placeholderAPI ? PlaceholderAPI.setPlaceholders((Player) p.getPlayer(), syncedPlaceholder) : identifier);
-                long totalTime =  System.nanoTime()-time;
-                TAB.getInstance().getCPUManager().addPlaceholderTime(identifier, totalTime);
-                TAB.getInstance().getCpu().addTime(TAB.getInstance().getPlaceholderManager().getFeatureName(), TabConstants.CpuUsageCategory.PLACEHOLDER_REQUEST, totalTime);
-            });
+            syncPlaceholderBatch.request((TabPlayer) p, ppl[0], player ->
+                    placeholderAPI ? PlaceholderAPI.setPlaceholders((Player) player.getPlayer(), syncedPlaceholder) : identifier);
             return null;
         });
     }
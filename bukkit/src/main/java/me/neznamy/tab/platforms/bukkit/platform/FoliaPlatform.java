@@ -2,7 +2,6 @@ package me.neznamy.tab.platforms.bukkit.platform;
 
 import lombok.NonNull;
 import lombok.SneakyThrows;
-import me.clip.placeholderapi.PlaceholderAPI;
 import me.neznamy.tab.platforms.bukkit.features.PerWorldPlayerList;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants;
@@ -35,7 +34,7 @@ public class FoliaPlatform extends BukkitPlatform {
      *          Plugin
      */
     public FoliaPlatform(@NotNull JavaPlugin plugin) {
-        super(plugin);
+        super(plugin, true);
     }
 
     @Override
@@ -68,34 +67,10 @@ public class FoliaPlatform extends BukkitPlatform {
         registerInternalSyncPlaceholder(TabConstants.Placeholder.TPS, 1000, p -> decimal2.format(Math.min(20, Bukkit.getTPS()[0])));
     }
 
-    @Override
-    public void registerSyncPlaceholder(@NotNull String identifier) {
-        String syncedPlaceholder = "%" + identifier.substring(6);
-        PlayerPlaceholderImpl[] ppl = new PlayerPlaceholderImpl[1];
-        ppl[0] = TAB.getInstance().getPlaceholderManager().registerPlayerPlaceholder(identifier, p -> {
-            runSync((Entity) p.getPlayer(), () -> {
-                long time = System.nanoTime();
-                String output = isPlaceholderAPI() ? PlaceholderAPI.setPlaceholders((Player) p.getPlayer(), syncedPlaceholder) : identifier;
-                long totalTime =  System.nanoTime()-time;
-                TAB.getInstance().getCPUManager().addPlaceholderTime(identifier, totalTime);
-                TAB.getInstance().getCpu().addTime(TAB.getInstance().getPlaceholderManager().getFeatureName(), TabConstants.CpuUsageCategory.PLACEHOLDER_REQUEST, totalTime);
-                TAB.getInstance().getCPUManager().runTask(() -> ppl[0].updateValue(p, output)); // To ensure player is loaded
-            });
-            return null;
-        });
-    }
-
     private void registerInternalSyncPlaceholder(@NonNull String identifier, int refresh, @NonNull Function<TabPlayer, String> function) {
         PlayerPlaceholderImpl[] ppl = new PlayerPlaceholderImpl[1];
         ppl[0] = TAB.getInstance().getPlaceholderManager().registerInternalPlayerPlaceholder(identifier, refresh, p -> {
-            runSync((Entity) p.getPlayer(), () -> {
-                long time = System.nanoTime();
-                String output = function.apply((TabPlayer) p);
-                long totalTime =  System.nanoTime()-time;
-                TAB.getInstance().getCPUManager().addPlaceholderTime(identifier, totalTime);
-                TAB.getInstance().getCpu().addTime(TAB.getInstance().getPlaceholderManager().getFeatureName(), TabConstants.CpuUsageCategory.PLACEHOLDER_REQUEST, totalTime);
-                TAB.getInstance().getCPUManager().runTask(() -> ppl[0].updateValue(p, output)); // To ensure player is loaded
-            });
+            getSyncPlaceholderBatch().request((TabPlayer) p, ppl[0], function);
             return null;
         });
     }
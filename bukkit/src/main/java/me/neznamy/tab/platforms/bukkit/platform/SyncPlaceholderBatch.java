@@ -0,0 +1,154 @@
+package me.neznamy.tab.platforms.bukkit.platform;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import me.neznamy.tab.shared.TAB;
+import me.neznamy.tab.shared.TabConstants;
+import me.neznamy.tab.shared.cpu.CpuManager;
+import me.neznamy.tab.shared.cpu.TimedCaughtTask;
+import me.neznamy.tab.shared.placeholders.types.PlayerPlaceholderImpl;
+import me.neznamy.tab.shared.platform.TabPlayer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Evaluation of placeholders which must be requested in server's main thread in batches.
+ * Instead of scheduling a task for every player and placeholder, requests are collected
+ * and all of them are evaluated in a single task, results are then passed back to TAB's
+ * thread in a single task as well. On Folia, a task evaluates all requests of players
+ * owned by the region the task runs in.
+ */
+public class SyncPlaceholderBatch {
+
+    /** Platform for scheduling tasks */
+    @NotNull private final BukkitPlatform platform;
+
+    /** Folia's method for checking entity ownership, {@code null} if not running Folia */
+    @Nullable private final Method isOwnedByCurrentRegion;
+
+    /** Requested placeholders of players waiting for evaluation, guarded by {@code this} */
+    @NotNull private final Map<TabPlayer, Map<PlayerPlaceholderImpl, Function<TabPlayer, String>>> pending = new LinkedHashMap<>();
+
+    /**
+     * Constructs new instance with given platform.
+     *
+     * @param   platform
+     *          Platform for scheduling tasks
+     * @param   folia
+     *          {@code true} if server is running Folia, {@code false} if not
+     */
+    @SneakyThrows
+    public SyncPlaceholderBatch(@NonNull BukkitPlatform platform, boolean folia) {
+        this.platform = platform;
+        // Paper has this method as well, but only Folia needs a task per region
+        isOwnedByCurrentRegion = folia ? Bukkit.class.getMethod("isOwnedByCurrentRegion", Entity.class) : null;
+    }
+
+    /**
+     * Requests new value of placeholder for player. Value will be evaluated in
+     * the main thread together with all other requests and then given to the placeholder.
+     *
+     * @param   player
+     *          Player to request value for
+     * @param   placeholder
+     *          Placeholder to update value of
+     * @param   function
+     *          Function returning the value, called in the main thread
+     */
+    public void request(@NonNull TabPlayer player, @NonNull PlayerPlaceholderImpl placeholder,
+                        @NonNull Function<TabPlayer, String> function) {
+        boolean schedule;
+        synchronized (this) {
+            // On Folia a task is needed in every region, otherwise one task evaluates everything
+            schedule = isOwnedByCurrentRegion == null ? pending.isEmpty() : !pending.containsKey(player);
+            pending.computeIfAbsent(player, p -> new LinkedHashMap<>()).put(placeholder, function);
+        }
+        if (schedule) platform.runSync((Entity) player.getPlayer(), this::evaluate);
+    }
+
+    /**
+     * Evaluates all pending requests which can be evaluated in current thread
+     * and passes the results to TAB's thread.
+     */
+    private void evaluate() {
+        Map<TabPlayer, Map<PlayerPlaceholderImpl, Function<TabPlayer, String>>> batch = new LinkedHashMap<>();
+        synchronized (this) {
+            Iterator<Map.Entry<TabPlayer, Map<PlayerPlaceholderImpl, Function<TabPlayer, String>>>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<TabPlayer, Map<PlayerPlaceholderImpl, Function<TabPlayer, String>>> entry = iterator.next();
+                if (!entry.getKey().isOnline()) {
+                    iterator.remove();
+                } else if (isOwnedByCurrentRegion(entry.getKey())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        if (batch.isEmpty()) return;
+        CpuManager cpu = TAB.getInstance().getCpu();
+        Map<TabPlayer, Map<PlayerPlaceholderImpl, String>> results = new LinkedHashMap<>();
+        long totalTime = 0;
+        for (Map.Entry<TabPlayer, Map<PlayerPlaceholderImpl, Function<TabPlayer, String>>> entry : batch.entrySet()) {
+            TabPlayer player = entry.getKey();
+            Map<PlayerPlaceholderImpl, String> values = new LinkedHashMap<>();
+            for (Map.Entry<PlayerPlaceholderImpl, Function<TabPlayer, String>> request : entry.getValue().entrySet()) {
+                long time = System.nanoTime();
+                values.put(request.getKey(), apply(player, request.getKey(), request.getValue()));
+                long placeholderTime = System.nanoTime() - time;
+                cpu.addPlaceholderTime(request.getKey().getIdentifier(), placeholderTime);
+                totalTime += placeholderTime;
+            }
+            results.put(player, values);
+        }
+        cpu.addTime(TAB.getInstance().getPlaceholderManager().getFeatureName(), TabConstants.CpuUsageCategory.PLACEHOLDER_REQUEST, totalTime);
+        cpu.runTask(new TimedCaughtTask(cpu, () -> {
+            for (Map.Entry<TabPlayer, Map<PlayerPlaceholderImpl, String>> entry : results.entrySet()) {
+                PlayerPlaceholderImpl.bulkUpdateValues(entry.getKey(), entry.getValue());
+            }
+        }, TAB.getInstance().getPlaceholderManager().getFeatureName(), TabConstants.CpuUsageCategory.SYNC_PLACEHOLDER_UPDATE));
+    }
+
+    /**
+     * Returns value of placeholder for player. If it throws an error, the error is logged
+     * and {@code null} is returned to keep previous value.
+     *
+     * @param   player
+     *          Player to get value for
+     * @param   placeholder
+     *          Placeholder which is being requested
+     * @param   function
+     *          Function returning the value
+     * @return  Value of placeholder or {@code null} if it threw an error
+     */
+    @Nullable
+    private String apply(@NotNull TabPlayer player, @NotNull PlayerPlaceholderImpl placeholder, @NotNull Function<TabPlayer, String> function) {
+        try {
+            return function.apply(player);
+        } catch (Exception | LinkageError e) {
+            TAB.getInstance().getErrorManager().placeholderError("Player placeholder " + placeholder.getIdentifier() +
+                    " generated an error when setting for player " + player.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if player is owned by region of current thread on Folia,
+     * always {@code true} on other platforms.
+     *
+     * @param   player
+     *          Player to check
+     * @return  {@code true} if player's placeholders can be evaluated in current thread
+     */
+    @SneakyThrows
+    private boolean isOwnedByCurrentRegion(@NotNull TabPlayer player) {
+        return isOwnedByCurrentRegion == null || (boolean) isOwnedByCurrentRegion.invoke(null, player.getPlayer());
+    }
+}
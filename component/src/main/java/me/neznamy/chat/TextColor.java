@@ -186,6 +186,16 @@ public class TextColor {
         return hexCode;
     }
 
+    /**
+     * Returns {@code true} if this is one of the legacy color constants, {@code false}
+     * if it is an RGB color, even if it has the same hex code as a legacy color.
+     *
+     * @return  {@code true} if this is a legacy color constant, {@code false} if not
+     */
+    public boolean isLegacy() {
+        return legacyColor != null && LEGACY_COLORS.get(legacyColor.getCharacter()) == this;
+    }
+
     /**
      * Returns legacy colors based on provided character or {@code null} if character is not valid
      *
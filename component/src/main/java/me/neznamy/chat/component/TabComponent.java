@@ -270,6 +270,74 @@ public abstract class TabComponent {
         return builder.toString();
     }
 
+    /**
+     * Returns {@code true} if this component has an Adventure component saved, {@code false} if not.
+     * Saved Adventure components may contain data not represented in this component, such as
+     * hover and click events, which makes such components unsafe to share by canonical key.
+     *
+     * @return  {@code true} if Adventure component is saved, {@code false} if not
+     */
+    public boolean hasAdventureComponent() {
+        return adventureComponent != null;
+    }
+
+    /**
+     * Returns canonical key of this component tree. Components with identical type, content,
+     * formatting and extra components have equal keys, which allows sharing a single
+     * instance (and its converted platform objects) between all users of identical text.
+     *
+     * @return  Canonical key of this component tree
+     */
+    @NotNull
+    public String toCanonicalKey() {
+        StringBuilder builder = new StringBuilder();
+        appendCanonicalKey(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Appends canonical key of this component and all extra components into the builder.
+     * Strings are length-prefixed to avoid ambiguity.
+     *
+     * @param   builder
+     *          Builder to append key to
+     */
+    private void appendCanonicalKey(@NotNull StringBuilder builder) {
+        builder.append(getClass().getSimpleName()).append('[');
+        if (this instanceof TextComponent) appendString(builder, ((TextComponent) this).getText());
+        if (this instanceof TranslatableComponent) appendString(builder, ((TranslatableComponent) this).getKey());
+        if (this instanceof KeybindComponent) appendString(builder, ((KeybindComponent) this).getKeybind());
+        TextColor color = modifier.getColor();
+        if (color == null) {
+            builder.append('-');
+        } else if (color.isLegacy()) {
+            // Legacy colors are converted differently than RGB colors with the same hex code
+            builder.append('&').append(color.getLegacyColor().getCharacter());
+        } else {
+            builder.append('#').append(color.getHexCode());
+        }
+        builder.append(',');
+        builder.append(modifier.getShadowColor()).append(',');
+        appendFlag(builder, modifier.getBold());
+        appendFlag(builder, modifier.getItalic());
+        appendFlag(builder, modifier.getUnderlined());
+        appendFlag(builder, modifier.getStrikethrough());
+        appendFlag(builder, modifier.getObfuscated());
+        if (modifier.getFont() != null) appendString(builder, modifier.getFont());
+        for (TabComponent extra : getExtra()) {
+            extra.appendCanonicalKey(builder);
+        }
+        builder.append(']');
+    }
+
+    private static void appendString(@NotNull StringBuilder builder, @NotNull String string) {
+        builder.append(string.length()).append(':').append(string);
+    }
+
+    private static void appendFlag(@NotNull StringBuilder builder, @Nullable Boolean flag) {
+        builder.append(flag == null ? '-' : flag ? '1' : '0');
+    }
+
     /**
      * Returns organized component from colored text
      *
@@ -238,6 +238,18 @@ public class ErrorManager {
                 Collections.emptyList(), false, errorLog);
     }
 
+    /**
+     * Prints error message when ProxySupport received message in unsupported protocol version.
+     *
+     * @param   version
+     *          Protocol version of the message
+     */
+    public void unsupportedProxyProtocol(int version) {
+        printError("ProxySupport received message with unsupported protocol version " + version +
+                ". Is another proxy running a newer version of the plugin?",
+                Collections.emptyList(), false, errorLog);
+    }
+
     /**
      * Prints error message when MineSkin download failed with an error.
      *
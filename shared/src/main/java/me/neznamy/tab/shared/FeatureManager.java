@@ -29,6 +29,7 @@ import me.neznamy.tab.shared.features.sorting.Sorting;
 import me.neznamy.tab.shared.features.types.*;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import me.neznamy.tab.shared.platform.decorators.TrackedTabList;
+import me.neznamy.tab.shared.proxy.BridgePermissionRefresher;
 import me.neznamy.tab.shared.proxy.ProxyPlatform;
 import me.neznamy.tab.shared.proxy.ProxyTabPlayer;
 import me.neznamy.tab.shared.proxy.message.outgoing.Unload;
@@ -230,6 +231,7 @@ public class FeatureManager {
         if (changed == null) return;
         World from = changed.world;
         changed.world = to;
+        TAB.getInstance().getPlayerIndex().move(changed, changed.server, from, changed.server, to);
         for (TabFeature f : values) {
             if (!(f instanceof WorldSwitchListener)) continue;
             TimedCaughtTask task = new TimedCaughtTask(TAB.getInstance().getCpu(),
@@ -256,6 +258,7 @@ public class FeatureManager {
         if (changed == null) return;
         Server from = changed.server;
         changed.server = to;
+        TAB.getInstance().getPlayerIndex().move(changed, from, changed.world, to, changed.world);
         ((ProxyTabPlayer)changed).sendJoinPluginMessage();
         for (TabFeature f : values) {
             if (!(f instanceof ServerSwitchListener)) continue;
@@ -608,6 +611,7 @@ public class FeatureManager {
             }
             if (proxy != null) TAB.getInstance().getFeatureManager().registerFeature(TabConstants.Feature.PROXY_SUPPORT, proxy);
         }
+        if (featureManager.getFeature(TabConstants.Feature.PROXY_SUPPORT) == null) ProxySupport.discardRetainedState();
 
         if (config.isPipelineInjection()) {
             PipelineInjector inj = TAB.getInstance().getPlatform().createPipelineInjector();
@@ -661,6 +665,10 @@ public class FeatureManager {
             featureManager.registerFeature(TabConstants.Feature.GLOBAL_PLAYER_LIST, new GlobalPlayerList(config.getGlobalPlayerList()));
         }
 
+        if (TAB.getInstance().getPlatform() instanceof ProxyPlatform && config.isBukkitPermissions()) {
+            featureManager.registerFeature(TabConstants.Feature.BRIDGE_PERMISSIONS, new BridgePermissionRefresher());
+        }
+
         featureManager.registerFeature(TabConstants.Feature.NICK_COMPATIBILITY, new NickCompatibility());
     }
 }
\ No newline at end of file
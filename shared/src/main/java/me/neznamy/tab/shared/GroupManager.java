@@ -1,7 +1,9 @@
 package me.neznamy.tab.shared;
 
 import lombok.Getter;
+import me.neznamy.tab.shared.cpu.CpuManager;
 import me.neznamy.tab.shared.cpu.TimedCaughtTask;
+import me.neznamy.tab.shared.hook.LuckPermsHook;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import me.neznamy.tab.shared.task.GroupRefreshTask;
 import org.jetbrains.annotations.NotNull;
@@ -23,8 +25,16 @@ public class GroupManager {
     /** Function for retrieving player's group */
     private final Function<TabPlayer, String> detectGroup = TAB.getInstance().getConfiguration().getConfig().isGroupsByPermissions() ? this::getByPermission : this::getByPrimary;
 
+    /** Task refreshing groups of players */
+    private final GroupRefreshTask refreshTask = new GroupRefreshTask(detectGroup);
+
+    /** Flag tracking whether groups are refreshed on LuckPerms events instead of periodically */
+    private final boolean eventDriven;
+
     /**
-     * Constructs new instance with given permission plugin and registers group placeholder.
+     * Constructs new instance with given permission plugin and starts refreshing groups. If the plugin is
+     * LuckPerms, groups are only refreshed when LuckPerms recalculates player's data or contexts.
+     * Other plugins do not notify about changes, so groups of all players are refreshed periodically.
      *
      * @param   permissionPlugin
      *          Name of detected permission plugin
@@ -34,8 +44,22 @@ public class GroupManager {
     public GroupManager(@NotNull String permissionPlugin, @NotNull Function<TabPlayer, String> groupFunction) {
         this.permissionPlugin = permissionPlugin;
         this.groupFunction = groupFunction;
-        TAB.getInstance().getCpu().getGroupRefreshingThread().repeatTask(new TimedCaughtTask(TAB.getInstance().getCpu(), new GroupRefreshTask(detectGroup),
-                "Permission group refreshing", "Periodic task"), TAB.getInstance().getConfiguration().getConfig().getPermissionRefreshInterval());
+        CpuManager cpu = TAB.getInstance().getCpu();
+        eventDriven = permissionPlugin.equals("LuckPerms") && TAB.getInstance().getConfiguration().getConfig().isLuckPermsEvents();
+        if (eventDriven) {
+            LuckPermsHook.getInstance().subscribe(player -> cpu.getGroupRefreshingThread().execute(new TimedCaughtTask(cpu,
+                    () -> refreshTask.refresh(player), "Permission group refreshing", "Processing LuckPerms event")));
+        } else {
+            cpu.getGroupRefreshingThread().repeatTask(new TimedCaughtTask(cpu, refreshTask,
+                    "Permission group refreshing", "Periodic task"), TAB.getInstance().getConfiguration().getConfig().getPermissionRefreshInterval());
+        }
+    }
+
+    /**
+     * Stops listening to LuckPerms events if groups were refreshed on them.
+     */
+    public void unload() {
+        if (eventDriven) LuckPermsHook.getInstance().unsubscribe();
     }
 
     /**
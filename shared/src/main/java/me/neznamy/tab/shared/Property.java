@@ -1,6 +1,7 @@
 package me.neznamy.tab.shared;
 
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import me.neznamy.chat.EnumChatFormat;
 import me.neznamy.tab.shared.features.PlaceholderManagerImpl;
 import me.neznamy.tab.shared.features.types.RefreshableFeature;
@@ -11,7 +12,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * A dynamic text with placeholder support. If any placeholder
@@ -20,6 +24,9 @@ import java.util.List;
  */
 public class Property {
 
+    /** Characters which form a color code when following {@code &} */
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx#";
+
     /** Internal identifier for this text for PlaceholderAPI expansion, null if it should not be exposed */
     @Getter
     @Nullable
@@ -41,11 +48,21 @@ public class Property {
     @Nullable @Getter private String temporaryValue;
 
     /**
-     * Raw value using %s for each placeholder ready to be inserted
-     * into String formatter, which results in about 5x lower
-     * memory allocations as well as better performance.
+     * Compiled raw value split into colored literal chunks surrounding placeholders.
+     * Chunk at index {@code i} is placed before placeholder at index {@code i}, last
+     * chunk is placed after the last placeholder. Always has one more element
+     * than {@link #placeholders}.
+     */
+    private String[] literals;
+
+    /** Total length of all literal chunks, used to pre-size the builder when rendering */
+    private int literalLength;
+
+    /**
+     * Colored raw value in which placeholders are replaced one by one, used instead of
+     * {@link #literals} if placeholders could not be located in the text, {@code null} otherwise.
      */
-    private String rawFormattedValue;
+    @Nullable private String fallbackValue;
 
     /** Last known value after parsing non-relational placeholders */
     private String lastReplacedValue;
@@ -67,6 +84,12 @@ public class Property {
     /** Relational placeholders in the text in the same order they are used */
     private String[] relPlaceholders;
 
+    /** Formats with relational placeholders applied for each viewer */
+    private final Map<TabPlayer, CachedFormat> formatCache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Last format computed for any viewer, reused if another viewer gets the same result */
+    @Nullable private volatile String lastFormat;
+
     /**
      * Constructs new instance with given parameters and prepares
      * the formatter for use by detecting placeholders and reformatting the text.
@@ -109,54 +132,56 @@ public class Property {
     }
 
     /**
-     * Finds all placeholders used in the value and prepares it for
-     * String formatter using %s for each placeholder.
+     * Finds all placeholders used in the value and compiles it into
+     * colored literal chunks and placeholder slots.
      *
      * @param   value
      *          raw value to analyze
      */
     private void analyze(@NotNull String value) {
-        // Identify placeholders used directly
+        // Identify placeholders used directly and split the text around them
         List<String> placeholders0 = new ArrayList<>();
         List<String> relPlaceholders0 = new ArrayList<>();
+        List<String> literals0 = new ArrayList<>();
+        int position = 0;
+        boolean located = true;
         for (String identifier : PlaceholderManagerImpl.detectPlaceholders(value)) {
             placeholders0.add(identifier);
             if (identifier.startsWith("%rel_")) {
                 relPlaceholders0.add(identifier);
             }
-        }
-
-        // Convert all placeholders to %s for String formatter
-        String rawFormattedValue0 = value;
-        for (String placeholder : placeholders0) {
-            rawFormattedValue0 = replaceFirst(rawFormattedValue0, placeholder);
-        }
-
-        // Make % symbol not break String formatter by adding another one to display it
-        if (!placeholders0.isEmpty() && rawFormattedValue0.contains("%")) {
-            int index = rawFormattedValue0.lastIndexOf('%');
-            if (rawFormattedValue0.length() == index+1 || rawFormattedValue0.charAt(index+1) != 's') {
-                StringBuilder sb = new StringBuilder(rawFormattedValue0);
-                sb.insert(index+1, "%");
-                rawFormattedValue0 = sb.toString();
+            if (!located) continue;
+            int index = value.indexOf(identifier, position);
+            if (index == -1) {
+                located = false;
+                continue;
             }
+            literals0.add(compileLiteral(value.substring(position, index)));
+            position = index + identifier.length();
         }
-
-        // Make \n work even if used in '', which snakeyaml does not convert to newline
-        if (rawFormattedValue0.contains("\\n")) {
-            rawFormattedValue0 = rawFormattedValue0.replace("\\n", "\n");
+        literals0.add(compileLiteral(value.substring(position)));
+        if (located) {
+            fallbackValue = null;
+        } else {
+            // Overlapping placeholders, replace them in the entire text instead
+            fallbackValue = compileLiteral(value);
+            literals0.clear();
+            literals0.add(fallbackValue);
         }
 
-        // Apply static colors to not need to do it on every refresh
-        rawFormattedValue = EnumChatFormat.color(rawFormattedValue0);
-
         // Update and save values
         placeholders = placeholders0.toArray(new String[0]);
         relPlaceholders = relPlaceholders0.toArray(new String[0]);
+        literals = literals0.toArray(new String[0]);
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        literalLength = length;
         if (listener != null) {
             listener.addUsedPlaceholders(placeholders0);
         }
-        lastReplacedValue = rawFormattedValue;
+        lastReplacedValue = placeholders.length == 0 ? literals[0] : "";
         update();
         if (name != null) {
             TabExpansion expansion = TAB.getInstance().getPlaceholderManager().getTabExpansion();
@@ -165,12 +190,43 @@ public class Property {
         }
     }
 
-    private String replaceFirst(String original, String searchString) {
-        int index = original.indexOf(searchString);
-        if (index != -1) {
-            return original.substring(0, index) + "%s" + original.substring(index + searchString.length());
+    /**
+     * Prepares static part of the text for rendering by applying
+     * colors to not need to do it on every refresh.
+     *
+     * @param   literal
+     *          Static text between placeholders
+     * @return  Compiled text
+     */
+    @NotNull
+    private String compileLiteral(@NotNull String literal) {
+        // Make \n work even if used in '', which snakeyaml does not convert to newline
+        if (literal.contains("\\n")) {
+            literal = literal.replace("\\n", "\n");
+        }
+        return EnumChatFormat.color(literal);
+    }
+
+    /**
+     * Appends already colored text into the builder. If the builder ends with
+     * {@code &} and the text starts with a color code character, the color code
+     * split between the two is translated as well, giving the same result
+     * as translating colors of the entire text at once.
+     *
+     * @param   sb
+     *          Builder to append text to
+     * @param   text
+     *          Colored text to append
+     */
+    private void appendColored(@NotNull StringBuilder sb, @NotNull String text) {
+        if (text.isEmpty()) return;
+        int last = sb.length() - 1;
+        if (last >= 0 && sb.charAt(last) == '&' && COLOR_CODES.indexOf(text.charAt(0)) != -1) {
+            sb.setCharAt(last, '§');
+            sb.append(Character.toLowerCase(text.charAt(0)));
+            sb.append(text, 1, text.length());
         } else {
-            return original;
+            sb.append(text);
         }
     }
 
@@ -259,16 +315,23 @@ public class Property {
     public boolean update() {
         if (placeholders.length == 0) return false;
         String string;
-        if ("%s".equals(rawFormattedValue)) {
-            string = TAB.getInstance().getPlaceholderManager().getPlaceholder(placeholders[0]).set(placeholders[0], owner);
+        if (fallbackValue != null) {
+            string = fallbackValue;
+            for (String identifier : placeholders) {
+                string = TAB.getInstance().getPlaceholderManager().getPlaceholder(identifier).set(string, owner);
+            }
+            string = EnumChatFormat.color(string);
+        } else if (placeholders.length == 1 && literalLength == 0) {
+            string = EnumChatFormat.color(TAB.getInstance().getPlaceholderManager().getPlaceholder(placeholders[0]).set(placeholders[0], owner));
         } else {
-            Object[] values = new String[placeholders.length];
+            StringBuilder sb = new StringBuilder(Math.max(lastReplacedValue.length(), literalLength) + 16);
+            sb.append(literals[0]);
             for (int i=0; i<placeholders.length; i++) {
-                values[i] = TAB.getInstance().getPlaceholderManager().getPlaceholder(placeholders[i]).set(placeholders[i], owner);
+                appendColored(sb, EnumChatFormat.color(TAB.getInstance().getPlaceholderManager().getPlaceholder(placeholders[i]).set(placeholders[i], owner)));
+                appendColored(sb, literals[i+1]);
             }
-            string = String.format(rawFormattedValue, values);
+            string = sb.toString();
         }
-        string = EnumChatFormat.color(string);
         if (!lastReplacedValue.equals(string)) {
             lastReplacedValue = string;
             mayContainRelPlaceholders = lastReplacedValue.indexOf('%') != -1;
@@ -298,7 +361,14 @@ public class Property {
      */
     public @NotNull String getFormat(@NotNull TabPlayer viewer) {
         if (!mayContainRelPlaceholders) return lastReplacedValue;
-        String format = lastReplacedValue;
+        String base = lastReplacedValue;
+        int viewerVersion = viewer.relationalVersion.get();
+        int ownerVersion = owner.relationalVersion.get();
+        CachedFormat cached = formatCache.get(viewer);
+        if (cached != null && cached.base == base && cached.viewerVersion == viewerVersion && cached.ownerVersion == ownerVersion) {
+            return cached.format;
+        }
+        String format = base;
         // Direct placeholders
         for (String identifier : relPlaceholders) {
             RelationalPlaceholderImpl pl = (RelationalPlaceholderImpl) TAB.getInstance().getPlaceholderManager().getPlaceholder(identifier);
@@ -312,6 +382,15 @@ public class Property {
             format = format.replace(pl.getIdentifier(), EnumChatFormat.color(pl.getLastValue(viewer, owner)));
             if (listener != null) listener.addUsedPlaceholder(identifier);
         }
+
+        // Share the same instance if result is identical for multiple viewers
+        String shared = lastFormat;
+        if (format.equals(shared)) {
+            format = shared;
+        } else {
+            lastFormat = format;
+        }
+        formatCache.put(viewer, new CachedFormat(base, viewerVersion, ownerVersion, format));
         return format;
     }
 
@@ -328,4 +407,25 @@ public class Property {
         }
         return EnumChatFormat.color(value);
     }
-}
\ No newline at end of file
+
+    /**
+     * Format computed for a viewer. It is valid as long as value of the property
+     * did not change (checked by identity of {@link #lastReplacedValue}) and
+     * no relational placeholder value of the viewer or owner changed.
+     */
+    @RequiredArgsConstructor
+    private static class CachedFormat {
+
+        /** Value of the property the format was computed from */
+        @NotNull private final String base;
+
+        /** Relational value version of the viewer when the format was computed */
+        private final int viewerVersion;
+
+        /** Relational value version of the owner when the format was computed */
+        private final int ownerVersion;
+
+        /** Computed format */
+        @NotNull private final String format;
+    }
+}
@@ -15,6 +15,7 @@ import me.neznamy.tab.api.tablist.layout.LayoutManager;
 import me.neznamy.tab.shared.command.DisabledCommand;
 import me.neznamy.tab.shared.command.TabCommand;
 import me.neznamy.tab.shared.config.Configs;
+import me.neznamy.tab.shared.config.file.DebouncedWriter;
 import me.neznamy.tab.shared.config.helper.ConfigHelper;
 import me.neznamy.tab.shared.cpu.CpuManager;
 import me.neznamy.tab.shared.event.EventBusImpl;
@@ -24,6 +25,7 @@ import me.neznamy.tab.shared.features.nametags.NameTag;
 import me.neznamy.tab.shared.platform.Platform;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import me.neznamy.tab.shared.proxy.ProxyPlatform;
+import me.neznamy.tab.shared.util.PlayerIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.error.YAMLException;
@@ -55,6 +57,9 @@ public class TAB extends TabAPI {
     /** Online player array to avoid memory allocation when iterating */
     private volatile TabPlayer[] onlinePlayers = new TabPlayer[0];
 
+    /** Online players partitioned by server and world */
+    private final PlayerIndex<TabPlayer> playerIndex = new PlayerIndex<>(TabPlayer[]::new);
+
     /** Instance of plugin's main command */
     private TabCommand command;
 
@@ -223,6 +228,8 @@ public class TAB extends TabAPI {
             long time = System.currentTimeMillis();
             if (configuration.getMysql() != null) configuration.getMysql().closeConnection();
             featureManager.unload();
+            groupManager.unload();
+            DebouncedWriter.flushAll();
             platform.logInfo(new TextComponent("Disabled in " + (System.currentTimeMillis()-time) + "ms", TextColor.GREEN));
         } catch (Throwable e) {
             errorManager.criticalError("Failed to disable", e);
@@ -239,6 +246,7 @@ public class TAB extends TabAPI {
         playersByName.clear();
         playersByTabListId.clear();
         onlinePlayers = new TabPlayer[0];
+        playerIndex.clear();
         cpu.cancelAllTasks();
     }
 
@@ -253,6 +261,7 @@ public class TAB extends TabAPI {
         playersByName.put(player.getName(), player);
         playersByTabListId.put(player.getTablistId(), player);
         onlinePlayers = data.values().toArray(new TabPlayer[0]);
+        playerIndex.add(player, player.server, player.world);
     }
 
     /**
@@ -266,6 +275,7 @@ public class TAB extends TabAPI {
         playersByName.remove(player.getName());
         playersByTabListId.remove(player.getTablistId());
         onlinePlayers = data.values().toArray(new TabPlayer[0]);
+        playerIndex.remove(player, player.server, player.world);
     }
 
     /**
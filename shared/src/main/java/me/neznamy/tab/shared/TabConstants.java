@@ -45,6 +45,7 @@ public class TabConstants {
         public static final String SERVER_SWITCH = "Server Switch";
         public static final String COMMAND_PREPROCESS = "Command Preprocess";
         public static final String PROXY_MESSAGE = "Proxy Message processing";
+        public static final String PROXY_MESSAGE_DECODE = "Proxy Message decoding";
 
         public static final String PLUGIN_MESSAGE_DECODE = "Decoding message";
         public static final String PLUGIN_MESSAGE_PROCESS = "Processing message";
@@ -54,17 +55,28 @@ public class TabConstants {
         /** Periodic task checking for current and expected display names of all entries */
         public static final String ANTI_OVERRIDE_TABLIST_PERIODIC = "Tablist anti override (periodic task)";
 
+        /** Periodic task checking for visibility changes not reported by any event */
+        public static final String LAYOUT_VISIBILITY_CHECK = "Checking visibility (periodic task)";
+
         public static final String PING_CHANGE = "Processing ping change";
         public static final String NICK_PLUGIN_COMPATIBILITY = "Compatibility with nick plugins";
         public static final String BYTE_BUF = "ByteBuf";
         public static final String PACKET_LOGIN = "Login packet";
         public static final String SCOREBOARD_PACKET_CHECK = "Checking for other plugins";
         public static final String PROXY_RELOAD = "Processing reload from another proxy";
+        public static final String PROXY_UPDATE_FLUSH = "Sending batched updates";
         public static final String GROUP_CHANGE = "Processing group change";
+        public static final String SCOREBOARD_FLUSH = "Flushing batched updates";
+        public static final String MYSQL_WRITE = "Writing queued changes";
+        public static final String MYSQL_LOAD = "Loading joined players";
+        public static final String FILE_WRITE = "Writing changed files";
+        public static final String SKIN_DOWNLOAD = "Applying downloaded skins";
+        public static final String PERMISSION_REQUEST = "Requesting permissions";
 
         // Placeholders
         public static final String PLACEHOLDER_REFRESH_INIT = "Phase #1 - Preparing for request";
         public static final String PLACEHOLDER_REQUEST = "Phase #2 - Requesting new values";
+        public static final String SYNC_PLACEHOLDER_UPDATE = "Applying values of sync placeholders";
         public static final String PLACEHOLDER_SAVE = "Phase #3 - Saving results";
 
         // Other
@@ -146,6 +158,7 @@ public class TabConstants {
         public static final String PLACEHOLDER_MANAGER = "PlaceholderManager";
         public static final String PING_SPOOF = "PingSpoof";
         public static final String PROXY_SUPPORT = "ProxySupport";
+        public static final String BRIDGE_PERMISSIONS = "BridgePermissions";
 
         //Bukkit only
         public static final String PER_WORLD_PLAYER_LIST = "PerWorldPlayerList";
@@ -273,4 +286,25 @@ public class TabConstants {
         public static final String SERVER_VERSION = "server_version";
 
     }
+
+    /**
+     * Numeric ids of proxy messages in binary proxy protocol. Proxies with different
+     * features enabled must agree on them, therefore ids must never be changed or reused.
+     */
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class ProxyMessageId {
+
+        public static final int LOAD = 0;
+        public static final int LOAD_REQUEST = 1;
+        public static final int PLAYER_JOIN = 2;
+        public static final int PLAYER_QUIT = 3;
+        public static final int SERVER_SWITCH = 4;
+        public static final int UPDATE_VANISH_STATUS = 5;
+        public static final int PLAYER_LIST_UPDATE = 6;
+        public static final int NAME_TAG_UPDATE = 7;
+        public static final int BELOW_NAME_UPDATE = 8;
+        public static final int YELLOW_NUMBER_UPDATE = 9;
+        public static final int UPDATE_BATCH = 10;
+        public static final int LOAD_DELTA = 11;
+    }
 }
\ No newline at end of file
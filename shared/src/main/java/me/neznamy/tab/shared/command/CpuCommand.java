@@ -5,7 +5,9 @@ import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants;
 import me.neznamy.chat.component.TabComponent;
 import me.neznamy.tab.shared.cpu.CpuReport;
+import me.neznamy.tab.shared.features.proxy.ProxySupport;
 import me.neznamy.tab.shared.platform.TabPlayer;
+import me.neznamy.tab.shared.util.cache.Cache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -53,6 +55,14 @@ public class CpuCommand extends SubCommand {
             sendToConsole(features);
         }
         sendMessage(sender, "&8&l" + LINE_CHAR + "&8&m                                                    ");
+        printCaches(sender);
+        sendMessage(sender, "&8&l" + LINE_CHAR + "&8&m                                                    ");
+        ProxySupport proxySupport = TAB.getInstance().getFeatureManager().getFeature(TabConstants.Feature.PROXY_SUPPORT);
+        if (proxySupport != null) {
+            sendMessage(sender, String.format("&8&l%s &6Proxy messages: &e%d &7queued, &a%d &7decoded, &7average decode latency &e%sms",
+                    LINE_CHAR, proxySupport.getQueuedMessages().get(), proxySupport.getDecodedMessages().sum(), decimal3.format(proxySupport.getAverageDecodeLatency())));
+            sendMessage(sender, "&8&l" + LINE_CHAR + "&8&m                                                    ");
+        }
         sendMessage(sender, String.format("&8&l%s &6&lPlaceholders Total: &a&l%s%%", LINE_CHAR, colorize(decimal3.format(report.getPlaceholderUsageTotal()), 10, 5)));
         sendMessage(sender, String.format("&8&l%s &6&lPlugin internals: &a&l%s%%", LINE_CHAR, colorize(decimal3.format(report.getFeatureUsageTotal()-report.getPlaceholderUsageTotal()), 10, 5)));
         sendMessage(sender, String.format("&8&l%s &6&lTotal: &e&l%s%%", LINE_CHAR, colorize(decimal3.format(report.getFeatureUsageTotal()), 10, 5)));
@@ -72,6 +82,18 @@ public class CpuCommand extends SubCommand {
         }
     }
 
+    private void printCaches(@Nullable TabPlayer sender) {
+        sendMessage(sender, "&8&l" + LINE_CHAR + " &6Caches (since creation):");
+        for (Cache<?, ?> cache : Cache.getCaches()) {
+            long hits = cache.getHits();
+            long lookups = hits + cache.getMisses();
+            if (lookups == 0) continue;
+            String hitRate = decimal3.format((double) hits / lookups * 100);
+            sendMessage(sender, String.format("&8&l%s &7%s - &a%d &7hits, &c%d &7misses, &e%d &7evictions (%s%% hit rate)",
+                    LINE_CHAR, cache.getName(), hits, cache.getMisses(), cache.getEvictions(), hitRate));
+        }
+    }
+
     private void sendToConsole(@NotNull Map<String, Map<String, Float>> features) {
         TAB.getInstance().getPlatform().logInfo(TabComponent.fromColoredText("&8&l" + LINE_CHAR + " &6Features:"));
         for (Entry<String, Map<String, Float>> entry : features.entrySet()) {
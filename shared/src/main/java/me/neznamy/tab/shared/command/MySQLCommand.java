@@ -13,7 +13,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.error.YAMLException;
 
-import javax.sql.rowset.CachedRowSet;
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
@@ -66,16 +65,10 @@ public class MySQLCommand extends SubCommand {
             try {
                 YamlPropertyConfigurationFile groupFile = new YamlPropertyConfigurationFile(Configs.class.getClassLoader().getResourceAsStream("config/groups.yml"), new File(TAB.getInstance().getDataFolder(), "groups.yml"));
                 YamlPropertyConfigurationFile userFile = new YamlPropertyConfigurationFile(Configs.class.getClassLoader().getResourceAsStream("config/users.yml"), new File(TAB.getInstance().getDataFolder(), "users.yml"));
-                CachedRowSet crs = mysql.getCRS("select * from tab_groups");
-                while (crs.next()) {
-                    groupFile.setProperty(crs.getString("group"), crs.getString("property"),
-                            Server.byName(crs.getString("server")), World.byName(crs.getString("world")), crs.getString("value"));
-                }
-                crs = mysql.getCRS("select * from tab_users");
-                while (crs.next()) {
-                    userFile.setProperty(crs.getString("user"), crs.getString("property"),
-                            Server.byName(crs.getString("server")), World.byName(crs.getString("world")), crs.getString("value"));
-                }
+                mysql.query("select * from tab_groups", rs -> groupFile.setProperty(rs.getString("group"), rs.getString("property"),
+                        Server.byName(rs.getString("server")), World.byName(rs.getString("world")), rs.getString("value")));
+                mysql.query("select * from tab_users", rs -> userFile.setProperty(rs.getString("user"), rs.getString("property"),
+                        Server.byName(rs.getString("server")), World.byName(rs.getString("world")), rs.getString("value")));
                 sendMessage(sender, getMessages().getMySQLDownloadSuccess());
             } catch (YAMLException | IOException | SQLException e) {
                 sendMessage(sender, getMessages().getMySQLFailError());
@@ -96,6 +89,7 @@ public class MySQLCommand extends SubCommand {
                 YamlPropertyConfigurationFile userFile = new YamlPropertyConfigurationFile(Configs.class.getClassLoader().getResourceAsStream("config/users.yml"), new File(TAB.getInstance().getDataFolder(), "users.yml"));
                 upload(groupFile, TAB.getInstance().getConfiguration().getGroups());
                 upload(userFile, TAB.getInstance().getConfiguration().getUsers());
+                mysql.flushWrites();
                 sendMessage(sender, getMessages().getMySQLUploadSuccess());
             } catch (YAMLException | IOException e) {
                 sendMessage(sender, getMessages().getMySQLFailError());
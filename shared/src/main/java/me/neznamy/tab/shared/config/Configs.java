@@ -6,6 +6,8 @@ import me.neznamy.tab.shared.FeatureManager;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants;
 import me.neznamy.tab.shared.config.file.ConfigurationFile;
+import me.neznamy.tab.shared.config.file.DebouncedYamlConfigurationFile;
+import me.neznamy.tab.shared.config.file.PlayerDataLog;
 import me.neznamy.tab.shared.config.file.YamlConfigurationFile;
 import me.neznamy.tab.shared.config.file.YamlPropertyConfigurationFile;
 import me.neznamy.tab.shared.config.files.Animations;
@@ -42,6 +44,9 @@ public class Configs {
     //playerdata.yml, used for bossbar & scoreboard toggle saving
     private ConfigurationFile playerdata;
 
+    /** playerdata.log, used instead of playerdata.yml if append-only player data is enabled */
+    private PlayerDataLog playerdataLog;
+
     private PropertyConfiguration groups;
 
     private PropertyConfiguration users;
@@ -91,7 +96,7 @@ public class Configs {
             File file = new File(TAB.getInstance().getDataFolder(), "playerdata.yml");
             try {
                 if (file.exists() || file.createNewFile()) {
-                    playerdata = new YamlConfigurationFile(null, file);
+                    playerdata = new DebouncedYamlConfigurationFile(null, file, config.getDataSaveDelay());
                 }
             } catch (IOException e) {
                 TAB.getInstance().getErrorManager().criticalError("Failed to load playerdata.yml", e);
@@ -100,6 +105,24 @@ public class Configs {
         return playerdata;
     }
 
+    /**
+     * Returns playerdata.log file used for storing feature toggle status if append-only
+     * player data is enabled. When the file is created, data from playerdata.yml is imported.
+     *
+     * @return  playerdata.log file or {@code null} if append-only player data is disabled or loading failed
+     */
+    @Nullable
+    public PlayerDataLog getPlayerDataLog() {
+        if (playerdataLog == null && config.isAppendOnlyPlayerData()) {
+            try {
+                playerdataLog = new PlayerDataLog(new File(TAB.getInstance().getDataFolder(), "playerdata.log"), getPlayerDataFile(), config.getDataSaveDelay());
+            } catch (IOException e) {
+                TAB.getInstance().getErrorManager().criticalError("Failed to load playerdata.log", e);
+            }
+        }
+        return playerdataLog;
+    }
+
     /**
      * Returns world/server group name which specified element belongs to.
      * If nothing is found, element itself is returned.
@@ -0,0 +1,105 @@
+package me.neznamy.tab.shared.config.file;
+
+import lombok.NonNull;
+import me.neznamy.tab.shared.TAB;
+import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
+import me.neznamy.tab.shared.cpu.TimedCaughtTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind scheduler for data files. Instead of writing a file on every change, the file
+ * is marked as dirty and written in file writing thread once the configured delay passes,
+ * so multiple changes within the delay only result in a single write. All writers with
+ * pending changes are written on plugin disable.
+ */
+public class DebouncedWriter {
+
+    /** All created writers to write pending changes on plugin disable */
+    private static final Set<DebouncedWriter> writers = ConcurrentHashMap.newKeySet();
+
+    /** Delay in milliseconds between first change and writing the file */
+    private final int delay;
+
+    /** Task writing the file */
+    @NotNull private final Runnable write;
+
+    /** Whether a write is scheduled or not, guarded by {@code this} */
+    private boolean scheduled;
+
+    /**
+     * Constructs new instance with given parameters.
+     *
+     * @param   delay
+     *          Delay in milliseconds between first change and writing the file
+     * @param   write
+     *          Task writing the file
+     */
+    public DebouncedWriter(int delay, @NonNull Runnable write) {
+        this.delay = delay;
+        this.write = write;
+        writers.add(this);
+    }
+
+    /**
+     * Marks the file as changed and schedules a write if not scheduled already.
+     */
+    public synchronized void markDirty() {
+        if (scheduled) return;
+        scheduled = true;
+        TAB.getInstance().getCpu().getFileWriteThread().executeLater(new TimedCaughtTask(TAB.getInstance().getCpu(),
+                this::flush, "Data files", CpuUsageCategory.FILE_WRITE), delay);
+    }
+
+    /**
+     * Writes the file immediately if it has pending changes.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (!scheduled) return;
+            scheduled = false;
+        }
+        write.run();
+    }
+
+    /**
+     * Writes all files with pending changes in current thread and forgets all writers.
+     * This should be called on plugin disable, as new writers are created on load.
+     */
+    public static void flushAll() {
+        for (DebouncedWriter writer : writers) {
+            writer.flush();
+        }
+        writers.clear();
+    }
+
+    /**
+     * Writes content into given file atomically by writing it into a temporary file first
+     * and then replacing the target file with it, so the file is never left half-written.
+     *
+     * @param   file
+     *          File to write
+     * @param   content
+     *          Content to write
+     * @throws  IOException
+     *          If writing fails
+     */
+    public static void writeAtomically(@NonNull File file, byte[] content) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        Files.write(temp, content);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
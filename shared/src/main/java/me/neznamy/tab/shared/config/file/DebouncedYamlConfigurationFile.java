@@ -0,0 +1,47 @@
+package me.neznamy.tab.shared.config.file;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * YAML configuration file for frequently changing data. Saving only marks the file
+ * as changed and the file is written later in file writing thread using
+ * {@link DebouncedWriter}, coalescing all changes made in the meantime.
+ */
+public class DebouncedYamlConfigurationFile extends YamlConfigurationFile {
+
+    /** Writer scheduling writes of this file */
+    @NotNull private final DebouncedWriter writer;
+
+    /**
+     * Constructs new instance and attempts to load specified configuration file.
+     *
+     * @param   source
+     *          Source to copy file from if it does not exist
+     * @param   destination
+     *          File destination to use
+     * @param   saveDelay
+     *          Delay in milliseconds between first change and writing the file
+     * @throws  IOException
+     *          if I/O operation with the file unexpectedly fails
+     */
+    public DebouncedYamlConfigurationFile(@Nullable InputStream source, @NonNull File destination, int saveDelay) throws IOException {
+        super(source, destination);
+        writer = new DebouncedWriter(saveDelay, super::save);
+    }
+
+    @Override
+    public synchronized void set(@NonNull String path, @Nullable Object value) {
+        super.set(path, value);
+    }
+
+    @Override
+    public void save() {
+        writer.markDirty();
+    }
+}
@@ -0,0 +1,167 @@
+package me.neznamy.tab.shared.config.file;
+
+import lombok.NonNull;
+import me.neznamy.tab.shared.TAB;
+import me.neznamy.chat.component.TabComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Append-only storage of player data as an alternative to rewriting the whole
+ * YAML file on every change. Each line is a single change in format
+ * {@code <+|-> <section> <entry>}. Changes are appended in batches using
+ * {@link DebouncedWriter} and the file is compacted on load once it contains
+ * considerably more lines than live entries.
+ */
+public class PlayerDataLog {
+
+    /** Minimum amount of obsolete lines before the file is compacted on load */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    /** File to store the data in */
+    @NotNull private final File file;
+
+    /** Current entries by section */
+    @NotNull private final Map<String, Set<String>> sections = new LinkedHashMap<>();
+
+    /** Lines waiting to be appended to the file, guarded by {@code this} */
+    @NotNull private final List<String> pendingLines = new ArrayList<>();
+
+    /** Lock held while appending to keep changes in order */
+    @NotNull private final Object appendLock = new Object();
+
+    /** Writer scheduling appends */
+    @NotNull private final DebouncedWriter writer;
+
+    /**
+     * Constructs new instance and loads data from given file. If the file does not exist yet,
+     * it is created with lists from given YAML file to keep the data when switching formats.
+     *
+     * @param   file
+     *          File to store the data in
+     * @param   legacy
+     *          YAML player data file to import data from if the file does not exist yet
+     * @param   saveDelay
+     *          Delay in milliseconds between first change and appending changes to the file
+     * @throws  IOException
+     *          if I/O operation with the file unexpectedly fails
+     */
+    public PlayerDataLog(@NonNull File file, @Nullable ConfigurationFile legacy, int saveDelay) throws IOException {
+        this.file = file;
+        writer = new DebouncedWriter(saveDelay, this::append);
+        if (file.exists()) {
+            int lines = 0;
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ", 3);
+                if (parts.length != 3) continue;
+                lines++;
+                if (parts[0].equals("+")) {
+                    sections.computeIfAbsent(parts[1], s -> new LinkedHashSet<>()).add(parts[2]);
+                } else {
+                    sections.getOrDefault(parts[1], Collections.emptySet()).remove(parts[2]);
+                }
+            }
+            int entries = sections.values().stream().mapToInt(Set::size).sum();
+            if (lines - entries > Math.max(entries, COMPACTION_THRESHOLD)) compact();
+        } else {
+            if (legacy != null) {
+                for (Map.Entry<Object, Object> entry : legacy.getValues().entrySet()) {
+                    if (!(entry.getValue() instanceof List)) continue;
+                    Set<String> values = sections.computeIfAbsent(entry.getKey().toString(), s -> new LinkedHashSet<>());
+                    for (Object value : (List<?>) entry.getValue()) {
+                        values.add(value.toString());
+                    }
+                }
+            }
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the file to only contain current entries.
+     *
+     * @throws  IOException
+     *          if I/O operation with the file unexpectedly fails
+     */
+    private synchronized void compact() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, Set<String>> section : sections.entrySet()) {
+            for (String value : section.getValue()) {
+                content.append("+ ").append(section.getKey()).append(' ').append(value).append('\n');
+            }
+        }
+        DebouncedWriter.writeAtomically(file, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns all entries in given section.
+     *
+     * @param   section
+     *          Section to get entries of
+     * @return  Copy of entries in given section
+     */
+    @NotNull
+    public synchronized Set<String> getEntries(@NonNull String section) {
+        return new HashSet<>(sections.getOrDefault(section, Collections.emptySet()));
+    }
+
+    /**
+     * Adds entry into given section.
+     *
+     * @param   section
+     *          Section to add entry to
+     * @param   entry
+     *          Entry to add
+     */
+    public synchronized void add(@NonNull String section, @NonNull String entry) {
+        if (sections.computeIfAbsent(section, s -> new LinkedHashSet<>()).add(entry)) {
+            pendingLines.add("+ " + section + " " + entry);
+            writer.markDirty();
+        }
+    }
+
+    /**
+     * Removes entry from given section.
+     *
+     * @param   section
+     *          Section to remove entry from
+     * @param   entry
+     *          Entry to remove
+     */
+    public synchronized void remove(@NonNull String section, @NonNull String entry) {
+        if (sections.getOrDefault(section, Collections.emptySet()).remove(entry)) {
+            pendingLines.add("- " + section + " " + entry);
+            writer.markDirty();
+        }
+    }
+
+    /**
+     * Appends all pending changes to the file.
+     */
+    private void append() {
+        synchronized (appendLock) {
+            StringBuilder content = new StringBuilder();
+            synchronized (this) {
+                for (String line : pendingLines) {
+                    content.append(line).append('\n');
+                }
+                pendingLines.clear();
+            }
+            try {
+                Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                TAB.getInstance().getPlatform().logWarn(TabComponent.legacyText(String.format(
+                        "Failed to save file %s: %s: %s",
+                        file.getPath(), e.getClass().getName(), e.getMessage()
+                )));
+            }
+        }
+    }
+}
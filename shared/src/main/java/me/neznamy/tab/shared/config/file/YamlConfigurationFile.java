@@ -14,7 +14,6 @@ import org.yaml.snakeyaml.error.YAMLException;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.LinkedHashMap;
 import java.util.List;
 
@@ -71,11 +70,9 @@ public class YamlConfigurationFile extends ConfigurationFile {
     @Override
     public synchronized void save() {
         try {
-            Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8);
             DumperOptions options = new DumperOptions();
             options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-            new Yaml(options).dump(values, writer);
-            writer.close();
+            DebouncedWriter.writeAtomically(file, new Yaml(options).dump(values).getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
             TAB.getInstance().getPlatform().logWarn(TabComponent.legacyText(String.format(
                     "Failed to save yaml file %s: %s: %s",
@@ -61,8 +61,13 @@ public class Config {
     private final boolean onlineUuidInTabList = config.getBoolean("use-online-uuid-in-tablist", true);
     private final boolean pipelineInjection = getSecretOption("pipeline-injection", true);
     @NotNull private final String serverName = getSecretOption("server-name", "N/A");
+    private final int dataSaveDelay = getSecretOption("data-save-delay", 1000);
+    private final boolean appendOnlyPlayerData = getSecretOption("append-only-playerdata", false);
+    private final boolean luckPermsEvents = getSecretOption("luckperms-events", true);
     private final int permissionRefreshInterval = config.getInt("permission-refresh-interval", 1000);
+    private final int bridgePermissionRefreshInterval = getSecretOption("bridge-permission-refresh-interval", 30000);
     private final boolean enableProxySupport = config.getBoolean("proxy-support.enabled", true);
+    private final boolean proxyLegacyProtocol = config.getBoolean("proxy-support.legacy-protocol", false);
     private final boolean packetEventsCompensation = config.getBoolean("compensate-for-packetevents-bug", false) && !TAB.getInstance().getPlatform().isSafeFromPacketEventsBug();
 
     /** If enabled, groups are assigned via permissions instead of permission plugin */
@@ -1,75 +1,458 @@
 package me.neznamy.tab.shared.config.mysql;
 
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.chat.TextColor;
 import me.neznamy.chat.component.TextComponent;
+import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
+import me.neznamy.tab.shared.cpu.TimedCaughtTask;
+import me.neznamy.tab.shared.data.Server;
+import me.neznamy.tab.shared.data.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.sql.rowset.CachedRowSet;
-import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
-import java.util.Properties;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+/**
+ * MySQL connection handler. Connections are kept in a small pool shared by MySQL threads,
+ * each connection caches its prepared statements. Property changes are not written
+ * immediately, but collected and written together in a single transaction shortly after.
+ */
 @RequiredArgsConstructor
 public class MySQL {
 
-    private Connection con;
+    /** Maximum amount of idle connections kept open, same as amount of MySQL threads */
+    public static final int POOL_SIZE = 3;
+
+    /** Maximum amount of prepared statements cached per connection */
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    /** Timeout for queries and connecting in seconds */
+    private static final int TIMEOUT = 5;
+
+    /** Delay in milliseconds between first queued property change and writing all queued changes */
+    private static final int WRITE_DELAY = 1000;
+
     @NotNull private final MySQLConfiguration configuration;
 
+    /** Open connections not used by any thread */
+    @NotNull private final BlockingQueue<PooledConnection> idleConnections = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /** Property changes waiting to be written, guarded by {@code this} */
+    @NotNull private final Map<WriteKey, String> pendingWrites = new LinkedHashMap<>();
+
+    /** Whether a task for writing queued changes is scheduled or not, guarded by {@code this} */
+    private boolean writeScheduled;
+
+    /** Lock held while writing queued changes to keep them in order */
+    @NotNull private final Object writeLock = new Object();
+
+    /**
+     * Opens a connection to verify that the database is reachable and keeps it in the pool.
+     *
+     * @throws  SQLException
+     *          If connection could not be opened
+     */
     public void openConnection() throws SQLException {
-        if (isConnected()) return;
-        Properties properties = new Properties();
-        properties.setProperty("user", configuration.getUsername());
-        properties.setProperty("password", configuration.getPassword());
-        properties.setProperty("useSSL", String.valueOf(configuration.isUseSSL()));
-        properties.setProperty("characterEncoding", "UTF-8");
-        con = DriverManager.getConnection(String.format("jdbc:mysql://%s:%d/%s", configuration.getHost(), configuration.getPort(), configuration.getDatabase()), properties);
+        release(borrow());
         TAB.getInstance().getPlatform().logInfo(new TextComponent("Successfully connected to MySQL", TextColor.GREEN));
     }
-    
+
+    /**
+     * Writes all queued property changes and closes all idle connections.
+     *
+     * @throws  SQLException
+     *          If closing a connection failed
+     */
     public void closeConnection() throws SQLException {
-        if (isConnected()) con.close();
+        flushWrites(false);
+        PooledConnection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            connection.connection.close();
+        }
     }
 
-    private boolean isConnected() throws SQLException {
-        return con != null && !con.isClosed();
+    @NotNull
+    private PooledConnection borrow() throws SQLException {
+        PooledConnection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            if (connection.connection.isValid(TIMEOUT)) return connection;
+            connection.close();
+        }
+        Properties properties = new Properties();
+        properties.setProperty("user", configuration.getUsername());
+        properties.setProperty("password", configuration.getPassword());
+        String url = configuration.getJdbcUrl();
+        if (url == null) {
+            properties.setProperty("useSSL", String.valueOf(configuration.isUseSSL()));
+            properties.setProperty("characterEncoding", "UTF-8");
+            properties.setProperty("connectTimeout", String.valueOf(TIMEOUT * 1000));
+            url = String.format("jdbc:mysql://%s:%d/%s", configuration.getHost(), configuration.getPort(), configuration.getDatabase());
+        }
+        return new PooledConnection(DriverManager.getConnection(url, properties));
+    }
+
+    private void release(@NotNull PooledConnection connection) {
+        if (!idleConnections.offer(connection)) connection.close();
     }
 
     public void execute(@NonNull String query, @Nullable Object... vars) throws SQLException {
-        try (PreparedStatement ps = prepareStatement(query, vars)) {
-            ps.execute();
+        PooledConnection connection = borrow();
+        try {
+            connection.prepareStatement(query, vars).execute();
+        } finally {
+            release(connection);
         }
     }
 
-    @NotNull
-    private PreparedStatement prepareStatement(@NonNull String query, @Nullable Object... vars) throws SQLException {
-        if (!isConnected()) openConnection();
-        PreparedStatement ps = con.prepareStatement(query);
-        int i = 0;
-        if (query.contains("?")) {
-            for (Object obj : vars) {
-                i++;
-                ps.setObject(i, obj);
+    /**
+     * Executes query and passes all returned rows to given consumer.
+     *
+     * @param   query
+     *          Query to execute
+     * @param   consumer
+     *          Consumer to pass rows to
+     * @param   vars
+     *          Query parameters
+     * @throws  SQLException
+     *          If query failed
+     */
+    public void query(@NonNull String query, @NonNull RowConsumer consumer, @NonNull Object... vars) throws SQLException {
+        PooledConnection connection = borrow();
+        try (ResultSet rs = connection.prepareStatement(query, vars).executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(rs);
             }
+        } finally {
+            release(connection);
         }
-        return ps;
     }
 
-    @NotNull
-    public CachedRowSet getCRS(@NonNull String query, @NonNull Object... vars) throws SQLException {
-        PreparedStatement ps = prepareStatement(query, vars);
-        ResultSet rs = ps.executeQuery();
-        CachedRowSet crs;
+    /**
+     * Checks whether given table has an index with given name using connection metadata,
+     * which works regardless of the database engine.
+     *
+     * @param   table
+     *          Table to check
+     * @param   index
+     *          Name of the index
+     * @return  {@code true} if index exists, {@code false} if not
+     * @throws  SQLException
+     *          If reading metadata failed
+     */
+    public boolean hasIndex(@NonNull String table, @NonNull String index) throws SQLException {
+        PooledConnection connection = borrow();
         try {
-            crs = RowSetProvider.newFactory().createCachedRowSet();
-            crs.populate(rs);
-            return crs;
+            DatabaseMetaData metaData = connection.connection.getMetaData();
+            if (metaData.storesUpperCaseIdentifiers()) table = table.toUpperCase(Locale.ROOT);
+            try (ResultSet rs = metaData.getIndexInfo(connection.connection.getCatalog(), null, table, false, false)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+                }
+                return false;
+            }
         } finally {
-            rs.close();
-            ps.close();
+            release(connection);
+        }
+    }
+
+    /**
+     * Queues property change to be written shortly after. Only the latest value for each
+     * property is written.
+     *
+     * @param   table
+     *          Table to write to
+     * @param   column
+     *          Column with name of the group or user
+     * @param   name
+     *          Name of the group or user
+     * @param   property
+     *          Name of the property
+     * @param   server
+     *          Server the property applies to, {@code null} for all
+     * @param   world
+     *          World the property applies to, {@code null} for all
+     * @param   value
+     *          New value, {@code null} to remove the property
+     */
+    public synchronized void queueWrite(@NonNull String table, @NonNull String column, @NonNull String name, @NonNull String property,
+                                        @Nullable Server server, @Nullable World world, @Nullable String value) {
+        WriteKey key = new WriteKey(table, column, name, property, world == null ? null : world.getName(), server == null ? null : server.getName());
+        pendingWrites.put(key, value);
+        scheduleWrite();
+    }
+
+    /**
+     * Queues removal of all properties of given group or user. Queued changes of the
+     * same group or user are discarded, changes queued afterward are written after the removal.
+     *
+     * @param   table
+     *          Table to remove from
+     * @param   column
+     *          Column with name of the group or user
+     * @param   name
+     *          Name of the group or user
+     */
+    public synchronized void queueRemove(@NonNull String table, @NonNull String column, @NonNull String name) {
+        pendingWrites.keySet().removeIf(key -> key.table.equals(table) && key.name.equals(name));
+        pendingWrites.put(new WriteKey(table, column, name, null, null, null), null);
+        scheduleWrite();
+    }
+
+    /**
+     * Returns {@code true} if a change of given property or removal of all properties
+     * of given group or user is queued and not written yet, {@code false} if not.
+     *
+     * @param   table
+     *          Table of the property
+     * @param   column
+     *          Column with name of the group or user
+     * @param   name
+     *          Name of the group or user
+     * @param   property
+     *          Name of the property
+     * @param   server
+     *          Server the property applies to, {@code null} for all
+     * @param   world
+     *          World the property applies to, {@code null} for all
+     * @return  {@code true} if a change is queued, {@code false} if not
+     */
+    public synchronized boolean isWritePending(@NonNull String table, @NonNull String column, @NonNull String name, @NonNull String property,
+                                               @Nullable String server, @Nullable String world) {
+        if (pendingWrites.isEmpty()) return false;
+        return pendingWrites.containsKey(new WriteKey(table, column, name, property, world, server)) ||
+                pendingWrites.containsKey(new WriteKey(table, column, name, null, null, null));
+    }
+
+    private void scheduleWrite() {
+        if (writeScheduled) return;
+        writeScheduled = true;
+        TAB.getInstance().getCPUManager().getMysqlThread().executeLater(new TimedCaughtTask(TAB.getInstance().getCpu(),
+                this::flushWrites, "MySQL", CpuUsageCategory.MYSQL_WRITE), WRITE_DELAY);
+    }
+
+    /**
+     * Writes all queued property changes in a single transaction. Removals are written first,
+     * then existing rows are updated and rows which did not exist are inserted. As all queued
+     * changes are for different properties, the order does not matter. If writing fails,
+     * the changes are queued again to be retried later.
+     */
+    public void flushWrites() {
+        flushWrites(true);
+    }
+
+    /**
+     * Writes all queued property changes in a single transaction.
+     *
+     * @param   retry
+     *          Whether changes should be queued again if writing fails or not
+     */
+    private void flushWrites(boolean retry) {
+        synchronized (writeLock) {
+            List<Map.Entry<WriteKey, String>> writes;
+            synchronized (this) {
+                writeScheduled = false;
+                if (pendingWrites.isEmpty()) return;
+                writes = new ArrayList<>(pendingWrites.entrySet());
+                pendingWrites.clear();
+            }
+            try {
+                PooledConnection connection = borrow();
+                try {
+                    connection.connection.setAutoCommit(false);
+                    write(connection, writes);
+                    connection.connection.commit();
+                } catch (SQLException e) {
+                    connection.connection.rollback();
+                    throw e;
+                } finally {
+                    connection.connection.setAutoCommit(true);
+                    release(connection);
+                }
+                TAB.getInstance().debug("[MySQL] Written " + writes.size() + " property changes");
+            } catch (SQLException e) {
+                TAB.getInstance().getErrorManager().mysqlQueryFailed(e);
+                if (retry) {
+                    requeue(writes);
+                    TAB.getInstance().getPlatform().logWarn(new TextComponent("[MySQL] Failed to write " + writes.size() +
+                            " property changes, trying again in " + WRITE_DELAY + "ms", TextColor.RED));
+                } else {
+                    TAB.getInstance().getPlatform().logWarn(new TextComponent("[MySQL] Failed to write " + writes.size() +
+                            " property changes, the changes were lost", TextColor.RED));
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues changes which failed to be written again. Changes which were replaced by a newer
+     * change of the same property or removal of the same group or user in the meantime are dropped.
+     *
+     * @param   writes
+     *          Changes which failed to be written
+     */
+    private synchronized void requeue(@NotNull List<Map.Entry<WriteKey, String>> writes) {
+        Map<WriteKey, String> merged = new LinkedHashMap<>();
+        for (Map.Entry<WriteKey, String> write : writes) {
+            WriteKey key = write.getKey();
+            if (pendingWrites.containsKey(key)) continue;
+            if (pendingWrites.containsKey(new WriteKey(key.table, key.column, key.name, null, null, null))) continue;
+            merged.put(key, write.getValue());
+        }
+        merged.putAll(pendingWrites);
+        pendingWrites.clear();
+        pendingWrites.putAll(merged);
+        scheduleWrite();
+    }
+
+    /**
+     * Writes given property changes using given connection, batching changes using the same query.
+     *
+     * @param   connection
+     *          Connection to write with
+     * @param   writes
+     *          Property changes to write
+     * @throws  SQLException
+     *          If writing failed
+     */
+    private void write(@NotNull PooledConnection connection, @NotNull List<Map.Entry<WriteKey, String>> writes) throws SQLException {
+        Map<String, List<Object[]>> removals = new LinkedHashMap<>();
+        Map<String, List<Map.Entry<WriteKey, String>>> updates = new LinkedHashMap<>();
+        for (Map.Entry<WriteKey, String> write : writes) {
+            WriteKey key = write.getKey();
+            if (key.property == null) {
+                removals.computeIfAbsent("delete from `" + key.table + "` where `" + key.column + "` = ?", q -> new ArrayList<>()).add(new Object[]{key.name});
+            } else if (write.getValue() == null) {
+                removals.computeIfAbsent("delete from `" + key.table + "`" + key.getCondition(), q -> new ArrayList<>())
+                        .add(new Object[]{key.name, key.property, key.world, key.server});
+            } else {
+                updates.computeIfAbsent("update `" + key.table + "` set `value` = ?" + key.getCondition(), q -> new ArrayList<>()).add(write);
+            }
+        }
+        for (Map.Entry<String, List<Object[]>> batch : removals.entrySet()) {
+            connection.executeBatch(batch.getKey(), batch.getValue());
+        }
+        Map<String, List<Object[]>> inserts = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Map.Entry<WriteKey, String>>> batch : updates.entrySet()) {
+            List<Object[]> rows = new ArrayList<>();
+            for (Map.Entry<WriteKey, String> write : batch.getValue()) {
+                WriteKey key = write.getKey();
+                rows.add(new Object[]{write.getValue(), key.name, key.property, key.world, key.server});
+            }
+            int[] counts = connection.executeBatch(batch.getKey(), rows);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) continue; // Row exists (or driver does not know)
+                WriteKey key = batch.getValue().get(i).getKey();
+                inserts.computeIfAbsent("insert into `" + key.table + "` (`" + key.column + "`, `property`, `value`, `world`, `server`) values (?, ?, ?, ?, ?)",
+                        q -> new ArrayList<>()).add(new Object[]{key.name, key.property, batch.getValue().get(i).getValue(), key.world, key.server});
+            }
+        }
+        for (Map.Entry<String, List<Object[]>> batch : inserts.entrySet()) {
+            connection.executeBatch(batch.getKey(), batch.getValue());
+        }
+    }
+
+    /**
+     * Consumer of rows returned by a query.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+
+        /**
+         * Processes current row of given result set.
+         *
+         * @param   rs
+         *          Result set pointing at the row to process
+         * @throws  SQLException
+         *          If reading the row failed
+         */
+        void accept(@NotNull ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Open connection with cache of prepared statements.
+     */
+    @RequiredArgsConstructor
+    private static class PooledConnection {
+
+        @NotNull private final Connection connection;
+
+        /** Prepared statements by their query in access order */
+        @NotNull private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        @NotNull
+        private PreparedStatement prepareStatement(@NonNull String query, @Nullable Object... vars) throws SQLException {
+            PreparedStatement ps = statements.get(query);
+            if (ps == null) {
+                ps = connection.prepareStatement(query);
+                ps.setQueryTimeout(TIMEOUT);
+                statements.put(query, ps);
+                if (statements.size() > STATEMENT_CACHE_SIZE) {
+                    Iterator<PreparedStatement> iterator = statements.values().iterator();
+                    iterator.next().close();
+                    iterator.remove();
+                }
+            } else {
+                ps.clearParameters();
+            }
+            if (vars != null) {
+                for (int i = 0; i < vars.length; i++) {
+                    ps.setObject(i + 1, vars[i]);
+                }
+            }
+            return ps;
+        }
+
+        @NotNull
+        private int[] executeBatch(@NonNull String query, @NonNull List<Object[]> rows) throws SQLException {
+            PreparedStatement ps = prepareStatement(query);
+            for (Object[] vars : rows) {
+                for (int i = 0; i < vars.length; i++) {
+                    ps.setObject(i + 1, vars[i]);
+                }
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        }
+
+        private void close() {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Connection is broken anyway
+            }
+        }
+    }
+
+    /**
+     * Key identifying a single property of a group or user.
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class WriteKey {
+
+        @NotNull private final String table;
+        @NotNull private final String column;
+        @NotNull private final String name;
+
+        /** Property name, {@code null} for removal of all properties */
+        @Nullable private final String property;
+        @Nullable private final String world;
+        @Nullable private final String server;
+
+        /**
+         * Returns {@code where} clause matching this property.
+         *
+         * @return  Condition matching this property
+         */
+        @NotNull
+        private String getCondition() {
+            return " where `" + column + "` = ? and `property` = ? and world " + (world == null ? "is" : "=") + " ? and server " + (server == null ? "is" : "=") + " ?";
         }
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import me.neznamy.tab.shared.config.file.ConfigurationSection;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 
@@ -22,6 +23,9 @@ public class MySQLConfiguration {
     @NonNull private final String password;
     private final boolean useSSL;
 
+    /** JDBC URL to use instead of connecting to MySQL server, such as a local embedded database */
+    @Nullable private final String jdbcUrl;
+
     /**
      * Returns instance of this class created from given configuration section. If there are
      * issues in the configuration, console warns are printed.
@@ -33,7 +37,7 @@ public class MySQLConfiguration {
     @NotNull
     public static MySQLConfiguration fromSection(@NonNull ConfigurationSection section) {
         // Check keys
-        section.checkForUnknownKey(Arrays.asList("enabled", "host", "port", "database", "username", "password", "usessl"));
+        section.checkForUnknownKey(Arrays.asList("enabled", "host", "port", "database", "username", "password", "usessl", "jdbc-url"));
 
         return new MySQLConfiguration(
                 section.getString("host", "127.0.0.1"),
@@ -41,7 +45,8 @@ public class MySQLConfiguration {
                 section.getString("database", "tab"),
                 section.getString("username", "user"),
                 section.getString("password", "password"),
-                section.getBoolean("useSSL", true)
+                section.getBoolean("useSSL", true),
+                section.getString("jdbc-url")
         );
     }
 }
@@ -9,7 +9,6 @@ import me.neznamy.tab.shared.data.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.sql.rowset.CachedRowSet;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -24,20 +23,22 @@ public class MySQLGroupConfiguration implements PropertyConfiguration {
     public MySQLGroupConfiguration(@NonNull MySQL mysql) throws SQLException {
         this.mysql = mysql;
         mysql.execute("create table if not exists tab_groups (`group` varchar(64), `property` varchar(16), `value` varchar(1024), world varchar(64), server varchar(64))");
-        CachedRowSet crs = mysql.getCRS("select * from tab_groups");
-        if (crs.size() == 0) {
+        List<String[]> rows = new ArrayList<>();
+        mysql.query("select * from tab_groups", rs -> rows.add(new String[]{rs.getString("group"), rs.getString("property"),
+                rs.getString("value"), rs.getString("world"), rs.getString("server")}));
+        if (rows.isEmpty()) {
             TAB.getInstance().getConfigHelper().startup().startupWarn("[MySQL] Using MySQL to store groups and users, however, the database is empty. " +
                     "You can get started by uploading existing data in files using \"/" + TAB.getInstance().getPlatform().getCommand() + " mysql upload\". Further modifications can " +
                     "be done using property commands (/" + TAB.getInstance().getPlatform().getCommand() + " <group / player> <name> <property> <value...>).");
             return;
         }
-        while (crs.next()) {
-            String group = crs.getString("group");
+        for (String[] row : rows) {
+            String group = row[0];
             if (!group.equals(TabConstants.DEFAULT_GROUP)) group = group.toLowerCase(Locale.US);
-            String property = crs.getString("property");
-            String value = crs.getString("value");
-            String world = crs.getString("world");
-            String server = crs.getString("server");
+            String property = row[1];
+            String value = row[2];
+            String world = row[3];
+            String server = row[4];
             setProperty0(group, property, Server.byName(server), World.byName(world), value);
             checkProperty("MySQL", "group", group, property, Server.byName(server), World.byName(world), true);
         }
@@ -46,19 +47,8 @@ public class MySQLGroupConfiguration implements PropertyConfiguration {
     @Override
     public void setProperty(@NonNull String group, @NonNull String property, @Nullable Server server, @Nullable World world, @Nullable String value) {
         String lowercaseGroup = group.equals(TabConstants.DEFAULT_GROUP) ? group : group.toLowerCase(Locale.US);
-        try {
-            if (getProperty(lowercaseGroup, property, server, world) != null) {
-                mysql.execute("delete from `tab_groups` where `group` = ? and `property` = ? and world " + querySymbol(world == null) + " ? and server " + querySymbol(server == null) + " ?", lowercaseGroup, property, world, server);
-            }
-            setProperty0(lowercaseGroup, property, server, world, value);
-            if (value != null) mysql.execute("insert into `tab_groups` (`group`, `property`, `value`, `world`, `server`) values (?, ?, ?, ?, ?)", lowercaseGroup, property, value, world, server);
-        } catch (SQLException e) {
-            TAB.getInstance().getErrorManager().mysqlQueryFailed(e);
-        }
-    }
-    
-    private String querySymbol(boolean isNull) {
-        return isNull ? "is" : "=";
+        setProperty0(lowercaseGroup, property, server, world, value);
+        mysql.queueWrite("tab_groups", "group", lowercaseGroup, property, server, world, value);
     }
 
     private void setProperty0(@NonNull String group, @NonNull String property, @Nullable Server server, @Nullable World world, @Nullable String value) {
@@ -2,50 +2,68 @@ package me.neznamy.tab.shared.config.mysql;
 
 import lombok.NonNull;
 import me.neznamy.tab.shared.TAB;
+import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
 import me.neznamy.tab.shared.config.PropertyConfiguration;
+import me.neznamy.tab.shared.cpu.TimedCaughtTask;
 import me.neznamy.tab.shared.data.Server;
 import me.neznamy.tab.shared.data.World;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.sql.rowset.CachedRowSet;
 import java.sql.SQLException;
 import java.util.*;
 
 public class MySQLUserConfiguration implements PropertyConfiguration {
 
+    /** Delay in milliseconds for collecting joining players before loading their properties together */
+    private static final int LOAD_DELAY = 100;
+
+    /** Maximum amount of players loaded with a single query */
+    private static final int MAX_BATCH_SIZE = 250;
+
+    /**
+     * Amounts of parameters of load queries. Parameters are padded to the nearest size
+     * by repeating a key, so only a few distinct queries exist and they stay in statement cache.
+     * Each player uses 2 parameters (name and UUID).
+     */
+    private static final int[] QUERY_SIZES = {2, 20, 100, MAX_BATCH_SIZE * 2};
+
     private final MySQL mysql;
 
+    /** Players waiting to have their properties loaded, guarded by itself */
+    private final Set<TabPlayer> pendingLoads = new LinkedHashSet<>();
+
     private final WeakHashMap<TabPlayer, Map<String, Object>> values = new WeakHashMap<>();
     private final Map<World, WeakHashMap<TabPlayer, Map<String, Object>>> perWorld = new HashMap<>();
     private final Map<Server, WeakHashMap<TabPlayer, Map<String, Object>>> perServer = new HashMap<>();
 
     public MySQLUserConfiguration(@NonNull MySQL mysql) throws SQLException {
         this.mysql = mysql;
-        mysql.execute("create table if not exists tab_users (`user` varchar(64), `property` varchar(16), `value` varchar(1024), world varchar(64), server varchar(64))");
+        mysql.execute("create table if not exists tab_users (`user` varchar(64), `property` varchar(16), `value` varchar(1024), world varchar(64), server varchar(64), index `tab_users_user` (`user`))");
+        createIndex();
     }
 
-    @Override
-    public void setProperty(@NonNull String user, @NonNull String property, @Nullable Server server, @Nullable World world, @Nullable String value) {
-        TabPlayer p = getPlayer(user);
-        String lowercaseUser = user.toLowerCase();
+    /**
+     * Creates index on user column for tables created before the index was added.
+     * Failure is only logged, because the index only speeds up loading.
+     */
+    private void createIndex() {
         try {
-            if (getProperty(lowercaseUser, property, server, world) != null) {
-                mysql.execute("delete from `tab_users` where `user` = ? and `property` = ? and world " + querySymbol(world == null) + " ? and server " + querySymbol(server == null) + " ?", lowercaseUser, property, world, server);
-            }
-            if (p != null) setProperty0(p, property, server, world, value);
-            if (value != null) mysql.execute("insert into `tab_users` (`user`, `property`, `value`, `world`, `server`) values (?, ?, ?, ?, ?)", lowercaseUser, property, value, world, server);
+            if (!mysql.hasIndex("tab_users", "tab_users_user")) mysql.execute("create index `tab_users_user` on `tab_users` (`user`)");
         } catch (SQLException e) {
             TAB.getInstance().getErrorManager().mysqlQueryFailed(e);
         }
     }
 
-    private String querySymbol(boolean isNull) {
-        return isNull ? "is" : "=";
+    @Override
+    public void setProperty(@NonNull String user, @NonNull String property, @Nullable Server server, @Nullable World world, @Nullable String value) {
+        TabPlayer p = getPlayer(user);
+        if (p != null) setProperty0(p, property, server, world, value);
+        mysql.queueWrite("tab_users", "user", user.toLowerCase(), property, server, world, value);
     }
 
-    private void setProperty0(@NonNull TabPlayer user, @NonNull String property, @Nullable Server server, @Nullable World world, @Nullable String value) {
+    private synchronized void setProperty0(@NonNull TabPlayer user, @NonNull String property, @Nullable Server server, @Nullable World world, @Nullable String value) {
         checkProperty("MySQL", "player", user.getName(), property, server, world, false);
         if (world != null) {
             perWorld.computeIfAbsent(world, w -> new WeakHashMap<>()).computeIfAbsent(user, g -> new HashMap<>()).put(property, value);
@@ -57,7 +75,7 @@ public class MySQLUserConfiguration implements PropertyConfiguration {
     }
 
     @Override
-    public String[] getProperty(@NonNull String user, @NonNull String property, @Nullable Server server, @Nullable World world) {
+    public synchronized String[] getProperty(@NonNull String user, @NonNull String property, @Nullable Server server, @Nullable World world) {
         TabPlayer p = getPlayer(user);
         Object value;
         if ((value = perWorld.getOrDefault(world, new WeakHashMap<>()).getOrDefault(p, new HashMap<>()).get(property)) != null) {
@@ -73,12 +91,8 @@ public class MySQLUserConfiguration implements PropertyConfiguration {
     }
 
     @Override
-    public void remove(@NonNull String player) {
-        try {
-            mysql.execute("delete from `tab_users` where `user` = ?", player);
-        } catch (SQLException e) {
-            TAB.getInstance().getErrorManager().mysqlQueryFailed(e);
-        }
+    public synchronized void remove(@NonNull String player) {
+        mysql.queueRemove("tab_users", "user", player);
         TabPlayer user = getPlayer(player);
         if (user == null) return;
         values.remove(user);
@@ -127,37 +141,87 @@ public class MySQLUserConfiguration implements PropertyConfiguration {
         return p;
     }
 
+    /**
+     * Queues loading of properties of given player. Players joining shortly after each other
+     * are loaded together with a single query in MySQL thread. Queries time out after a few
+     * seconds, so a slow database cannot keep the players without data indefinitely.
+     *
+     * @param   player
+     *          Player to load properties of
+     */
     public void load(@NonNull TabPlayer player) {
-        TAB.getInstance().getCPUManager().getMysqlThread().execute(() -> {
+        synchronized (pendingLoads) {
+            if (!pendingLoads.add(player) || pendingLoads.size() > 1) return;
+        }
+        TAB.getInstance().getCPUManager().getMysqlThread().executeLater(new TimedCaughtTask(TAB.getInstance().getCpu(),
+                this::loadPending, "MySQL", CpuUsageCategory.MYSQL_LOAD), LOAD_DELAY);
+    }
 
-            try {
-                CachedRowSet crs = mysql.getCRS("select * from `tab_users` where `user` = ?", player.getName().toLowerCase());
-                while (crs.next()) {
-                    String user = crs.getString("user");
-                    String property = crs.getString("property");
-                    String value = crs.getString("value");
-                    String world = crs.getString("world");
-                    String server = crs.getString("server");
-                    TAB.getInstance().debug("Loaded user line: " + String.format("%s, %s, %s, %s, %s", user, property, value, world, server));
-                    setProperty0(player, property, Server.byName(server), World.byName(world), value);
-                }
-                CachedRowSet crs2 = mysql.getCRS("select * from `tab_users` where `user` = ?", player.getUniqueId().toString());
-                while (crs2.next()) {
-                    String user = crs2.getString("user");
-                    String property = crs2.getString("property");
-                    String value = crs2.getString("value");
-                    String world = crs2.getString("world");
-                    String server = crs2.getString("server");
-                    TAB.getInstance().debug("Loaded user line: " + String.format("%s, %s, %s, %s, %s", user, property, value, world, server));
-                    setProperty0(player, property, Server.byName(server), World.byName(world), value);
-                }
-                TAB.getInstance().debug("Loaded MySQL data of " + player.getName());
-                if (crs.size() > 0 || crs2.size() > 0) {
-                    TAB.getInstance().getFeatureManager().onGroupChange(player);
+    /**
+     * Loads properties of all queued players, splitting them into batches of
+     * at most {@link #MAX_BATCH_SIZE} players per query.
+     */
+    private void loadPending() {
+        List<TabPlayer> players;
+        synchronized (pendingLoads) {
+            players = new ArrayList<>(pendingLoads);
+            pendingLoads.clear();
+        }
+        for (int i = 0; i < players.size(); i += MAX_BATCH_SIZE) {
+            load(players.subList(i, Math.min(players.size(), i + MAX_BATCH_SIZE)));
+        }
+    }
+
+    /**
+     * Loads properties of given players with a single query. Rows are matched to
+     * players by their lowercase name or UUID. Queued property changes are written
+     * first and rows of properties changed in the meantime are skipped, so the
+     * query never overrides newer values with old ones.
+     *
+     * @param   players
+     *          Players to load properties of
+     */
+    private void load(@NotNull List<TabPlayer> players) {
+        Map<String, TabPlayer> byUser = new HashMap<>();
+        for (TabPlayer player : players) {
+            if (!player.isOnline()) continue;
+            byUser.put(player.getName().toLowerCase(), player);
+            byUser.put(player.getUniqueId().toString(), player);
+        }
+        if (byUser.isEmpty()) return;
+        Set<TabPlayer> loaded = new HashSet<>();
+        mysql.flushWrites();
+        try {
+            Object[] keys = byUser.keySet().toArray();
+            int size = QUERY_SIZES[QUERY_SIZES.length - 1];
+            for (int querySize : QUERY_SIZES) {
+                if (querySize >= keys.length) {
+                    size = querySize;
+                    break;
                 }
-            } catch (SQLException e) {
-                TAB.getInstance().getErrorManager().mysqlQueryFailed(e);
             }
-        });
+            Object[] params = Arrays.copyOf(keys, size);
+            Arrays.fill(params, keys.length, size, keys[0]);
+            mysql.query("select * from `tab_users` where `user` in (" + String.join(", ", Collections.nCopies(size, "?")) + ")", rs -> {
+                String user = rs.getString("user");
+                String property = rs.getString("property");
+                String value = rs.getString("value");
+                String world = rs.getString("world");
+                String server = rs.getString("server");
+                TabPlayer player = byUser.get(user.toLowerCase());
+                if (player == null) return;
+                if (mysql.isWritePending("tab_users", "user", user, property, server, world)) return; // Changed after flush
+                TAB.getInstance().debug("Loaded user line: " + String.format("%s, %s, %s, %s, %s", user, property, value, world, server));
+                setProperty0(player, property, Server.byName(server), World.byName(world), value);
+                loaded.add(player);
+            }, params);
+        } catch (SQLException e) {
+            TAB.getInstance().getErrorManager().mysqlQueryFailed(e);
+            return;
+        }
+        TAB.getInstance().debug("Loaded MySQL data of " + players.size() + " players");
+        for (TabPlayer player : loaded) {
+            TAB.getInstance().getFeatureManager().onGroupChange(player);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package me.neznamy.tab.shared.cpu;
 
 import lombok.Getter;
+import me.neznamy.tab.shared.config.mysql.MySQL;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -34,6 +35,9 @@ public class CpuManager {
     /** Scheduler for placeholder refreshing task to prevent inefficient placeholders from lagging the entire plugin */
     private final ThreadExecutor placeholderThread = new ThreadExecutor("TAB Placeholder Refreshing Thread");
 
+    /** Worker pool for splitting placeholder refreshing between multiple threads, {@code null} if not enabled */
+    @Nullable private ThreadExecutor placeholderWorkers;
+
     /** Scheduler for refreshing permission groups */
     private final ThreadExecutor groupRefreshingThread = new ThreadExecutor("TAB Permission Group Refreshing Thread");
 
@@ -47,8 +51,20 @@ public class CpuManager {
     /** Scheduler for decoding plugin messages */
     private final ThreadExecutor pluginMessageDecodeThread = new ThreadExecutor("TAB Plugin Message Decoding Thread");
 
+    /** Schedulers for decoding messages from other proxies, messages from the same proxy always use the same one */
+    private final ThreadExecutor[] proxyMessageDecodeThreads = new ThreadExecutor[] {
+            new ThreadExecutor("TAB Proxy Message Decoding Thread #1"),
+            new ThreadExecutor("TAB Proxy Message Decoding Thread #2")
+    };
+
+    /** Scheduler for writing data files */
+    private final ThreadExecutor fileWriteThread = new ThreadExecutor("TAB File Writing Thread");
+
+    /** Thread pool for downloading layout skins */
+    private final ThreadExecutor skinDownloadThread = new ThreadExecutor("TAB Skin Downloading Thread", 2);
+
     /** Scheduler for MySQL tasks */
-    private final ThreadExecutor mysqlThread = new ThreadExecutor("TAB MySQL Thread");
+    private final ThreadExecutor mysqlThread = new ThreadExecutor("TAB MySQL Thread", MySQL.POOL_SIZE);
 
     /** Tasks submitted to main thread before plugin was fully enabled */
     private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
@@ -76,16 +92,38 @@ public class CpuManager {
         return true;
     }
 
+    /**
+     * Creates worker pool for parallel placeholder refreshing with given amount of threads
+     * if it was not created already and returns it.
+     *
+     * @param   threadCount
+     *          Amount of worker threads
+     * @return  Worker pool for parallel placeholder refreshing
+     */
+    @NotNull
+    public synchronized ThreadExecutor enablePlaceholderWorkers(int threadCount) {
+        if (placeholderWorkers == null) {
+            placeholderWorkers = new ThreadExecutor("TAB Placeholder Refreshing Worker", threadCount);
+        }
+        return placeholderWorkers;
+    }
+
     /**
      * Cancels all tasks and shuts down thread pools
      */
     public void cancelAllTasks() {
         processingThread.shutdown();
         placeholderThread.shutdown();
+        if (placeholderWorkers != null) placeholderWorkers.shutdown();
         groupRefreshingThread.shutdown();
         tablistEntryCheckThread.shutdown();
         pluginMessageDecodeThread.shutdown();
+        for (ThreadExecutor thread : proxyMessageDecodeThreads) {
+            thread.shutdown();
+        }
         mysqlThread.shutdown();
+        fileWriteThread.shutdown();
+        skinDownloadThread.shutdown();
     }
 
     /**
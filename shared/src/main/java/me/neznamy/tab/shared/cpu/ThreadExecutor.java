@@ -3,13 +3,18 @@ package me.neznamy.tab.shared.cpu;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import me.neznamy.tab.shared.TAB;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Thread executor for accepting tasks to execute them in a single threaded executor.
+ * Thread executor for accepting tasks to execute them in a single threaded executor
+ * (or a fixed pool of threads if requested).
  * All tasks are try/catch-ed and might track CPU usage if needed.
  */
 public class ThreadExecutor {
@@ -17,6 +22,9 @@ public class ThreadExecutor {
     /** Timeout for finishing tasks when shutting down thread executor */
     private static final int SHUTDOWN_TIMEOUT = 2000;
 
+    /** Executor owning the current thread, {@code null} if thread was not created by any */
+    private static final ThreadLocal<ThreadExecutor> CURRENT = new ThreadLocal<>();
+
     private final String threadName;
     private final ScheduledExecutorService executor;
 
@@ -28,7 +36,47 @@ public class ThreadExecutor {
      */
     public ThreadExecutor(@NotNull String threadName) {
         this.threadName = threadName;
-        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat(threadName).build());
+        executor = Executors.newSingleThreadScheduledExecutor(threadFactory(threadName));
+    }
+
+    /**
+     * Constructs new instance and starts new thread pool with given name and amount of threads.
+     * Threads are named using given name followed by thread index.
+     *
+     * @param   threadName
+     *          Name of the created threads
+     * @param   threadCount
+     *          Amount of threads in the pool
+     */
+    public ThreadExecutor(@NotNull String threadName, int threadCount) {
+        this.threadName = threadName;
+        executor = Executors.newScheduledThreadPool(threadCount, threadFactory(threadName + " #%d"));
+    }
+
+    /**
+     * Creates thread factory for threads of this executor, which remember the executor they belong to.
+     *
+     * @param   nameFormat
+     *          Name format of created threads
+     * @return  Thread factory for this executor
+     */
+    @NotNull
+    private ThreadFactory threadFactory(@NotNull String nameFormat) {
+        ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat).setThreadFactory(r -> defaultFactory.newThread(() -> {
+            CURRENT.set(this);
+            r.run();
+        })).build();
+    }
+
+    /**
+     * Returns executor owning the current thread.
+     *
+     * @return  Executor owning the current thread, {@code null} if not running in any executor's thread
+     */
+    @Nullable
+    public static ThreadExecutor current() {
+        return CURRENT.get();
     }
 
     /**
@@ -56,6 +104,26 @@ public class ThreadExecutor {
         executor.execute(task);
     }
 
+    /**
+     * Submits task for execution and returns a future which completes once the task is finished.
+     * If the executor is already shut down or shuts down concurrently, the task is not executed and the
+     * returned future is already completed, same as {@link #execute(Runnable)} silently drops the task.
+     *
+     * @param   task
+     *          Task to execute
+     * @return  Future completed once the task finishes
+     */
+    @NotNull
+    public CompletableFuture<Void> submit(@NotNull Runnable task) {
+        if (executor.isShutdown()) return CompletableFuture.completedFuture(null);
+        try {
+            return CompletableFuture.runAsync(new CaughtTask(task), executor);
+        } catch (RejectedExecutionException e) {
+            // Shut down after the check above
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
     public void executeLater(@NotNull TimedCaughtTask task, int delayMillis) {
         if (executor.isShutdown()) return;
         executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
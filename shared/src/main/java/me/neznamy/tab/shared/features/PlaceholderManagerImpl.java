@@ -8,14 +8,18 @@ import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants;
 import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
 import me.neznamy.tab.shared.cpu.CpuManager;
+import me.neznamy.tab.shared.cpu.ThreadExecutor;
 import me.neznamy.tab.shared.cpu.TimedCaughtTask;
 import me.neznamy.tab.shared.event.impl.TabPlaceholderRegisterEvent;
 import me.neznamy.tab.shared.features.types.CustomThreaded;
 import me.neznamy.tab.shared.features.types.JoinListener;
 import me.neznamy.tab.shared.features.types.Loadable;
 import me.neznamy.tab.shared.features.types.RefreshableFeature;
+import me.neznamy.tab.shared.placeholders.PlaceholderChangeBuffer;
+import me.neznamy.tab.shared.placeholders.PlaceholderDependencyGraph;
 import me.neznamy.tab.shared.placeholders.PlaceholderRefreshConfiguration;
 import me.neznamy.tab.shared.placeholders.PlaceholderRefreshTask;
+import me.neznamy.tab.shared.placeholders.PlaceholdersConfiguration;
 import me.neznamy.tab.shared.placeholders.expansion.EmptyTabExpansion;
 import me.neznamy.tab.shared.placeholders.expansion.TabExpansion;
 import me.neznamy.tab.shared.placeholders.types.PlayerPlaceholderImpl;
@@ -29,6 +33,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -50,14 +55,31 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
 
     //map of String-Set of features using placeholder
     private final Map<String, Set<RefreshableFeature>> placeholderUsage = new ConcurrentHashMap<>();
+
+    /** Precomputed placeholder dependencies, {@code null} if it needs to be rebuilt */
+    @Nullable
+    private volatile PlaceholderDependencyGraph dependencyGraph;
     private Placeholder[] usedPlaceholders = new Placeholder[0];
 
     @Getter private int loopTime;
 
+    /** Version incremented on every placeholder registration change to invalidate resolved placeholder references */
+    @Getter private volatile int registrationVersion;
+
     @NotNull @Getter private final TabExpansion tabExpansion;
 
     private final CpuManager cpu;
 
+    /** Worker pool for parallel placeholder refreshing, {@code null} if disabled */
+    @Nullable
+    private final ThreadExecutor refreshWorkers;
+
+    /** Amount of threads in {@link #refreshWorkers} */
+    private final int refreshWorkerCount;
+
+    /** Change buffers ready to be reused by next refresh loops */
+    private final Queue<PlaceholderChangeBuffer> changeBufferPool = new ConcurrentLinkedQueue<>();
+
     /** Placeholders which are refreshed on backend server */
     @Getter
     private final Map<String, Integer> bridgePlaceholders = new ConcurrentHashMap<>();
@@ -73,8 +95,10 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
     public PlaceholderManagerImpl(@NotNull CpuManager cpu, @NotNull PlaceholderRefreshConfiguration configuration) {
         this.cpu = cpu;
         this.configuration = configuration;
-        tabExpansion = TAB.getInstance().getConfiguration().getConfig().getPlaceholders().isRegisterTabExpansion() ?
-                TAB.getInstance().getPlatform().createTabExpansion() : new EmptyTabExpansion();
+        PlaceholdersConfiguration placeholders = TAB.getInstance().getConfiguration().getConfig().getPlaceholders();
+        tabExpansion = placeholders.isRegisterTabExpansion() ? TAB.getInstance().getPlatform().createTabExpansion() : new EmptyTabExpansion();
+        refreshWorkerCount = placeholders.getParallelRefreshThreads();
+        refreshWorkers = refreshWorkerCount > 0 ? cpu.enablePlaceholderWorkers(refreshWorkerCount) : null;
     }
 
     private void refresh() {
@@ -85,7 +109,7 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
             placeholders.add(placeholder);
         }
         if (placeholders.isEmpty()) return;
-        PlaceholderRefreshTask task = new PlaceholderRefreshTask(placeholders);
+        PlaceholderRefreshTask task = new PlaceholderRefreshTask(placeholders, refreshWorkers, refreshWorkerCount, changeBufferPool);
         cpu.getPlaceholderThread().execute(new TimedCaughtTask(cpu, () -> {
             // Run in placeholder refreshing thread
             task.run();
@@ -98,11 +122,53 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
     private void processRefreshResults(@NotNull PlaceholderRefreshTask task) {
         long time = System.nanoTime();
         Map<RefreshableFeature, Collection<TabPlayer>> update = new HashMap<>();
-        for (RefreshableFeature f : updateServerPlaceholders(task.getServerPlaceholderResults())) {
+        Map<RefreshableFeature, Collection<TabPlayer>> forceUpdate = new HashMap<>();
+        Set<RefreshableFeature> serverUpdate = new HashSet<>();
+        List<Placeholder> placeholders = task.getPlaceholdersToRefresh();
+        TabPlayer[] players = task.getPlayers();
+        for (PlaceholderChangeBuffer changes : task.getChanges()) {
+            for (int i = 0; i < changes.getSize(); i++) {
+                Placeholder placeholder = placeholders.get(changes.getPlaceholder(i));
+                if (placeholder instanceof ServerPlaceholderImpl) {
+                    ServerPlaceholderImpl serverPlaceholder = (ServerPlaceholderImpl) placeholder;
+                    boolean changed = changes.getTarget(i) == PlaceholderChangeBuffer.UNRESOLVED ?
+                            serverPlaceholder.hasValueChanged(changes.getValue(i)) : serverPlaceholder.applyValue(changes.getValue(i));
+                    if (!changed) continue;
+                    Collections.addAll(serverUpdate, getPlaceholderUsage(placeholder.getIdentifier()));
+                } else if (placeholder instanceof PlayerPlaceholderImpl) {
+                    TabPlayer player = players[changes.getPlayer(i)];
+                    if (!player.isOnline()) continue; // Player disconnected in the meantime while refreshing in another thread
+                    PlayerPlaceholderImpl playerPlaceholder = (PlayerPlaceholderImpl) placeholder;
+                    if (changes.getTarget(i) == PlaceholderChangeBuffer.UNRESOLVED) {
+                        if (!playerPlaceholder.hasValueChanged(player, changes.getValue(i), true)) continue;
+                    } else {
+                        playerPlaceholder.onValueChange(player, changes.getValue(i));
+                    }
+                    for (RefreshableFeature f : getPlaceholderUsage(placeholder.getIdentifier())) {
+                        update.computeIfAbsent(f, c -> new HashSet<>()).add(player);
+                    }
+                    if (placeholder.getIdentifier().equals(TabConstants.Placeholder.VANISHED)) {
+                        TAB.getInstance().getFeatureManager().onVanishStatusChange(player);
+                    }
+                    if (placeholder.getIdentifier().equals(TabConstants.Placeholder.GAMEMODE)) {
+                        TAB.getInstance().getFeatureManager().onGameModeChange(player);
+                    }
+                } else if (placeholder instanceof RelationalPlaceholderImpl) {
+                    TabPlayer viewer = players[changes.getPlayer(i)];
+                    TabPlayer target = players[changes.getTarget(i)];
+                    if (!viewer.isOnline() || !target.isOnline()) continue; // Player disconnected in the meantime while refreshing in another thread
+                    ((RelationalPlaceholderImpl) placeholder).updateParents(viewer);
+                    ((RelationalPlaceholderImpl) placeholder).updateParents(target);
+                    for (RefreshableFeature f : getPlaceholderUsage(placeholder.getIdentifier())) {
+                        forceUpdate.computeIfAbsent(f, c -> new HashSet<>()).add(target);
+                    }
+                }
+            }
+            changeBufferPool.offer(changes);
+        }
+        for (RefreshableFeature f : serverUpdate) {
             update.put(f, new HashSet<>(TAB.getInstance().getData().values()));
         }
-        updatePlayerPlaceholders(task.getPlayerPlaceholderResults(), update);
-        Map<RefreshableFeature, Collection<TabPlayer>> forceUpdate = updateRelationalPlaceholders(task.getRelationalPlaceholderResults());
         cpu.addTime(getFeatureName(), CpuUsageCategory.PLACEHOLDER_SAVE, System.nanoTime() - time);
         cpu.addPlaceholderTimes(task.getUsedTime());
 
@@ -136,72 +202,6 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
         }
     }
 
-    @NotNull
-    private Map<RefreshableFeature, Collection<TabPlayer>> updateRelationalPlaceholders(
-            @Nullable Map<RelationalPlaceholderImpl, Map<TabPlayer, Map<TabPlayer, String>>> results) {
-        if (results == null) return Collections.emptyMap();
-        Map<RefreshableFeature, Collection<TabPlayer>> update = new HashMap<>();
-        for (Entry<RelationalPlaceholderImpl, Map<TabPlayer, Map<TabPlayer, String>>> entry : results.entrySet()) {
-            RelationalPlaceholderImpl placeholder = entry.getKey();
-            Collection<RefreshableFeature> placeholderUsage = getPlaceholderUsage(placeholder.getIdentifier());
-            for (Entry<TabPlayer, Map<TabPlayer, String>> viewerResult : entry.getValue().entrySet()) {
-                TabPlayer viewer = viewerResult.getKey();
-                if (!viewer.isOnline()) continue; // Player disconnected in the meantime while refreshing in another thread
-                for (Entry<TabPlayer, String> targetResult : viewerResult.getValue().entrySet()) {
-                    TabPlayer target = targetResult.getKey();
-                    if (!target.isOnline()) continue; // Player disconnected in the meantime while refreshing in another thread
-                    if (placeholder.hasValueChanged(viewer, target, targetResult.getValue())) {
-                        placeholder.updateParents(target);
-                        for (RefreshableFeature f : placeholderUsage) {
-                            update.computeIfAbsent(f, c -> new HashSet<>()).add(target);
-                        }
-                    }
-                }
-            }
-        }
-        return update;
-    }
-
-    private void updatePlayerPlaceholders(@NotNull Map<PlayerPlaceholderImpl, Map<TabPlayer, String>> results,
-                                          @NotNull Map<RefreshableFeature, Collection<TabPlayer>> update) {
-        if (results.isEmpty()) return;
-        for (Entry<PlayerPlaceholderImpl, Map<TabPlayer, String>> entry : results.entrySet()) {
-            PlayerPlaceholderImpl placeholder = entry.getKey();
-            Set<RefreshableFeature> placeholderUsage = getPlaceholderUsage(placeholder.getIdentifier());
-            for (Entry<TabPlayer, String> playerResult : entry.getValue().entrySet()) {
-                TabPlayer player = playerResult.getKey();
-                if (!player.isOnline()) continue; // Player disconnected in the meantime while refreshing in another thread
-                if (placeholder.hasValueChanged(player, playerResult.getValue(), true)) {
-                    placeholder.updateParents(player);
-                    for (RefreshableFeature f : placeholderUsage) {
-                        update.computeIfAbsent(f, c -> new HashSet<>()).add(player);
-                    }
-                    if (placeholder.getIdentifier().equals(TabConstants.Placeholder.VANISHED)) {
-                        TAB.getInstance().getFeatureManager().onVanishStatusChange(player);
-                    }
-                    if (placeholder.getIdentifier().equals(TabConstants.Placeholder.GAMEMODE)) {
-                        TAB.getInstance().getFeatureManager().onGameModeChange(player);
-                    }
-                }
-            }
-        }
-    }
-
-    @NotNull
-    private Set<RefreshableFeature> updateServerPlaceholders(@NotNull Map<ServerPlaceholderImpl, String> results) {
-        Set<RefreshableFeature> set = new HashSet<>();
-        for (Entry<ServerPlaceholderImpl, String> entry : results.entrySet()) {
-            ServerPlaceholderImpl placeholder = entry.getKey();
-            if (placeholder.hasValueChanged(entry.getValue())) {
-                set.addAll(getPlaceholderUsage(placeholder.getIdentifier()));
-                for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
-                    placeholder.updateParents(all);
-                }
-            }
-        }
-        return set;
-    }
-
     /**
      * Returns collection of all currently registered placeholders.
      *
@@ -224,7 +224,9 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
     public synchronized <T extends Placeholder> T registerPlaceholder(@NotNull T placeholder) {
         boolean override = registeredPlaceholders.containsKey(placeholder.getIdentifier());
         registeredPlaceholders.put(placeholder.getIdentifier(), placeholder);
+        registrationVersion++;
         recalculateUsedPlaceholders();
+        invalidateDependencyGraph();
         if (override && placeholderUsage.containsKey(placeholder.getIdentifier())) {
             for (TabPlayer p : TAB.getInstance().getOnlinePlayers()) {
                 if (!p.isLoaded()) continue;
@@ -294,6 +296,7 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
     public synchronized void addUsedPlaceholder(@NonNull String identifier, @NonNull RefreshableFeature feature) {
         if (placeholderUsage.computeIfAbsent(identifier, x -> new HashSet<>()).add(feature)) {
             recalculateUsedPlaceholders();
+            invalidateDependencyGraph();
             TabPlaceholder p = getPlaceholder(identifier);
             for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
                 tabExpansion.setPlaceholderValue(all, p.getIdentifier(), p.getLastValueSafe(all));
@@ -324,19 +327,44 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
     }
 
     /**
-     * Returns set of features using specified placeholder.
+     * Returns array of features using specified placeholder, either directly or through
+     * parent placeholders. The array is taken from precomputed dependency graph, which is
+     * rebuilt if placeholders or their usage changed since last call.
+     * The returned array is shared and must not be modified.
      *
      * @param   identifier
      *          Placeholder to get usage of
-     * @return  Set of features using the placeholder
+     * @return  Array of features using the placeholder
+     */
+    @NotNull
+    public RefreshableFeature[] getPlaceholderUsage(@NotNull String identifier) {
+        PlaceholderDependencyGraph graph = dependencyGraph;
+        if (graph == null) graph = rebuildDependencyGraph();
+        return graph.getFeatures(identifier);
+    }
+
+    /**
+     * Marks placeholder dependency graph as outdated, causing it to be rebuilt on next usage lookup.
+     * Called when a placeholder is registered or unregistered, gets a new parent placeholder
+     * or is used by a new feature.
+     */
+    public synchronized void invalidateDependencyGraph() {
+        dependencyGraph = null;
+    }
+
+    /**
+     * Builds placeholder dependency graph if it is not built already and returns it.
+     *
+     * @return  Up-to-date placeholder dependency graph
      */
     @NotNull
-    public Set<RefreshableFeature> getPlaceholderUsage(@NotNull String identifier) {
-        Set<RefreshableFeature> usage = placeholderUsage.getOrDefault(identifier, new HashSet<>());
-        for (String parent : getPlaceholder(identifier).getParents()) {
-            usage.addAll(getPlaceholderUsage(parent));
+    private synchronized PlaceholderDependencyGraph rebuildDependencyGraph() {
+        PlaceholderDependencyGraph graph = dependencyGraph;
+        if (graph == null) {
+            graph = PlaceholderDependencyGraph.build(placeholderUsage, registeredPlaceholders);
+            dependencyGraph = graph;
         }
-        return usage;
+        return graph;
     }
 
     @Override
@@ -488,11 +516,13 @@ public class PlaceholderManagerImpl extends RefreshableFeature implements Placeh
     }
 
     @Override
-    public void unregisterPlaceholder(@NonNull String identifier) {
+    public synchronized void unregisterPlaceholder(@NonNull String identifier) {
         ensureActive();
         registeredPlaceholders.remove(identifier);
+        registrationVersion++;
         placeholderUsage.remove(identifier);
         recalculateUsedPlaceholders();
+        invalidateDependencyGraph();
     }
 
     @NotNull
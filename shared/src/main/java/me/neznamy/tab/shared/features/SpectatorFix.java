@@ -48,9 +48,9 @@ public class SpectatorFix extends TabFeature implements JoinListener, GameModeLi
     @Override
     public void onGameModeChange(@NotNull TabPlayer player) {
         if (player.getGamemode() != 3) return;
-        for (TabPlayer viewer : TAB.getInstance().getOnlinePlayers()) {
+        for (TabPlayer viewer : TAB.getInstance().getPlayerIndex().getPlayers(player.server)) {
             if (viewer.hasPermission(TabConstants.Permission.SPECTATOR_BYPASS)) continue;
-            if (player != viewer && player.server == viewer.server) {
+            if (player != viewer) {
                 viewer.getTabList().updateGameMode(player, 0);
             }
         }
@@ -79,11 +79,9 @@ public class SpectatorFix extends TabFeature implements JoinListener, GameModeLi
     @Override
     public void onServerChange(@NotNull TabPlayer changed, @NotNull Server from, @NotNull Server to) {
         // 200ms delay for global playerlist, taking extra time
-        customThread.executeLater(new TimedCaughtTask(TAB.getInstance().getCpu(), () -> {
-            for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
-                updatePlayer(all, false, true);
-            }
-        }, getFeatureName(), TabConstants.CpuUsageCategory.SERVER_SWITCH), 300);
+        // Only entries between the changed player and others were re-sent, so only those need to be updated
+        customThread.executeLater(new TimedCaughtTask(TAB.getInstance().getCpu(), () -> updatePlayer(changed, false, true),
+                getFeatureName(), TabConstants.CpuUsageCategory.SERVER_SWITCH), 300);
     }
 
     @Override
@@ -1,8 +1,11 @@
 package me.neznamy.tab.shared.features;
 
+import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.config.file.ConfigurationFile;
+import me.neznamy.tab.shared.config.file.PlayerDataLog;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -11,7 +14,8 @@ import java.util.Set;
 
 /**
  * This class tracks toggling of a feature using commands when "remember-toggle-choice" is enabled
- * in the configuration of that specific feature.
+ * in the configuration of that specific feature. Toggles are saved into append-only player data log
+ * if enabled, into player data file otherwise.
  */
 public class ToggleManager {
 
@@ -19,6 +23,10 @@ public class ToggleManager {
     @NotNull
     private final ConfigurationFile playerDataFile;
 
+    /** Append-only player data log to store toggle status in instead of player data file, {@code null} if disabled */
+    @Nullable
+    private final PlayerDataLog playerDataLog = TAB.getInstance().getConfiguration().getPlayerDataLog();
+
     /** Name of the section to save the toggled players list as in the player data file */
     @NotNull
     private final String sectionName;
@@ -38,7 +46,8 @@ public class ToggleManager {
     public ToggleManager(@NotNull ConfigurationFile playerDataFile, @NotNull String sectionName) {
         this.playerDataFile = playerDataFile;
         this.sectionName = sectionName;
-        toggledPlayers = new HashSet<>(playerDataFile.getStringList(sectionName, Collections.emptyList()));
+        toggledPlayers = playerDataLog != null ? playerDataLog.getEntries(sectionName) :
+                new HashSet<>(playerDataFile.getStringList(sectionName, Collections.emptyList()));
     }
 
     /**
@@ -50,6 +59,10 @@ public class ToggleManager {
     public void convert(@NotNull TabPlayer player) {
         if (toggledPlayers.remove(player.getName())) {
             toggledPlayers.add(player.getUniqueId().toString());
+            if (playerDataLog != null) {
+                playerDataLog.remove(sectionName, player.getName());
+                playerDataLog.add(sectionName, player.getUniqueId().toString());
+            }
             save();
         }
     }
@@ -73,6 +86,7 @@ public class ToggleManager {
      */
     public void add(@NotNull TabPlayer player) {
         if (toggledPlayers.add(player.getUniqueId().toString())) {
+            if (playerDataLog != null) playerDataLog.add(sectionName, player.getUniqueId().toString());
             save();
         }
     }
@@ -85,14 +99,16 @@ public class ToggleManager {
      */
     public void remove(@NotNull TabPlayer player) {
         if (toggledPlayers.remove(player.getUniqueId().toString())) {
+            if (playerDataLog != null) playerDataLog.remove(sectionName, player.getUniqueId().toString());
             save();
         }
     }
 
     /**
-     * Saves list of toggled players into file.
+     * Saves list of toggled players into player data file if append-only log is not used.
      */
     private void save() {
+        if (playerDataLog != null) return;
         playerDataFile.set(sectionName, new ArrayList<>(toggledPlayers));
     }
 }
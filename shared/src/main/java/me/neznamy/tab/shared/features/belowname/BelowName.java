@@ -60,7 +60,7 @@ public class BelowName extends RefreshableFeature implements JoinListener, QuitL
         TAB.getInstance().getFeatureManager().registerFeature(TabConstants.Feature.BELOW_NAME + "-Condition", disableChecker);
         TAB.getInstance().getFeatureManager().registerFeature(TabConstants.Feature.BELOW_NAME_TEXT, textRefresher);
         if (proxy != null) {
-            proxy.registerMessage(BelowNameUpdateProxyPlayer.class, in -> new BelowNameUpdateProxyPlayer(in, this));
+            proxy.registerMessage(TabConstants.ProxyMessageId.BELOW_NAME_UPDATE, BelowNameUpdateProxyPlayer.class, in -> new BelowNameUpdateProxyPlayer(in, this));
         }
     }
 
@@ -107,8 +107,8 @@ public class BelowName extends RefreshableFeature implements JoinListener, QuitL
         }
         int number = getValue(connectedPlayer);
         Property fancy = connectedPlayer.belowNameData.numberFormat;
-        for (TabPlayer all : onlinePlayers.getPlayers()) {
-            if (!sameServerAndWorld(connectedPlayer, all)) continue;
+        for (TabPlayer all : getPlayersInSameWorld(connectedPlayer)) {
+            if (all.belowNameData.score == null) continue; // Player not loaded yet
             setScore(all, connectedPlayer, number, fancy.getFormat(all));
             if (all != connectedPlayer) {
                 setScore(connectedPlayer, all, getValue(all), all.belowNameData.numberFormat.getFormat(connectedPlayer));
@@ -143,8 +143,8 @@ public class BelowName extends RefreshableFeature implements JoinListener, QuitL
             p.getScoreboard().unregisterObjective(OBJECTIVE_NAME);
         } else {
             register(p);
-            for (TabPlayer all : onlinePlayers.getPlayers()) {
-                if (!sameServerAndWorld(p, all)) continue;
+            for (TabPlayer all : getPlayersInSameWorld(p)) {
+                if (all.belowNameData.score == null) continue; // Player not loaded yet
                 setScore(p, all, getValue(all), all.belowNameData.numberFormat.getFormat(p));
             }
             if (proxy != null) {
@@ -201,8 +201,8 @@ public class BelowName extends RefreshableFeature implements JoinListener, QuitL
         int number = getValue(refreshed);
         Property fancy = refreshed.belowNameData.numberFormat;
         fancy.update();
-        for (TabPlayer viewer : onlinePlayers.getPlayers()) {
-            if (!sameServerAndWorld(viewer, refreshed)) continue;
+        for (TabPlayer viewer : getPlayersInSameWorld(refreshed)) {
+            if (viewer.belowNameData.score == null) continue; // Player not loaded yet
             setScore(viewer, refreshed, number, fancy.getFormat(viewer));
         }
         if (proxy != null) proxy.sendMessage(new BelowNameUpdateProxyPlayer(this, refreshed.getTablistId(), number, fancy.get()));
@@ -256,6 +256,18 @@ public class BelowName extends RefreshableFeature implements JoinListener, QuitL
         return player1.server == player2.server && player1.world == player2.world;
     }
 
+    /**
+     * Returns all online players in the same server and world as given player, including the player.
+     *
+     * @param   player
+     *          Player to get players in the same world of
+     * @return  Players in the same server and world
+     */
+    @NotNull
+    private TabPlayer[] getPlayersInSameWorld(@NotNull TabPlayer player) {
+        return TAB.getInstance().getPlayerIndex().getPlayers(player.server, player.world);
+    }
+
     @Override
     public void onServerChange(@NotNull TabPlayer changed, @NotNull Server from, @NotNull Server to) {
         updatePlayer(changed);
@@ -267,8 +279,8 @@ public class BelowName extends RefreshableFeature implements JoinListener, QuitL
     }
 
     private void updatePlayer(@NotNull TabPlayer player) {
-        for (TabPlayer all : onlinePlayers.getPlayers()) {
-            if (!sameServerAndWorld(all, player)) continue;
+        for (TabPlayer all : getPlayersInSameWorld(player)) {
+            if (all.belowNameData.score == null) continue; // Player not loaded yet
             setScore(player, all, getValue(all), all.belowNameData.numberFormat.getFormat(player));
             if (all != player) setScore(all, player, getValue(player), player.belowNameData.numberFormat.getFormat(all));
         }
@@ -45,6 +45,12 @@ public class BelowNameUpdateProxyPlayer extends ProxyMessage {
         return feature.getCustomThread();
     }
 
+    @Override
+    @NotNull
+    public UUID getUpdatedPlayer() {
+        return playerId;
+    }
+
     @Override
     public void write(@NotNull ByteArrayDataOutput out) {
         writeUUID(out, playerId);
@@ -46,12 +46,13 @@ public class GlobalPlayerList extends RefreshableFeature implements JoinListener
             TAB.getInstance().getPlaceholderManager().registerInternalServerPlaceholder(TabConstants.Placeholder.globalPlayerListGroup(entry.getKey()), 1000, () -> {
                 if (onlinePlayers == null) return "0"; // Not loaded yet
                 int count = 0;
-                for (TabPlayer player : onlinePlayers.getPlayers()) {
-                    if (entry.getValue().contains(player.server) && !player.isVanished()) count++;
-                }
-                if (proxy != null) {
-                    for (ProxyPlayer player : proxy.getProxyPlayers().values()) {
-                        if (entry.getValue().contains(player.server) && !player.isVanished()) count++;
+                for (Server server : entry.getValue()) {
+                    if (proxy != null) {
+                        count += proxy.countVisiblePlayers(server);
+                    } else {
+                        for (TabPlayer player : TAB.getInstance().getPlayerIndex().getPlayers(server)) {
+                            if (!player.isVanished()) count++;
+                        }
                     }
                 }
                 return PerformanceUtil.toString(count);
@@ -12,6 +12,7 @@ import me.neznamy.tab.shared.platform.TabList;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import me.neznamy.tab.shared.util.cache.StringToComponentCache;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
 
@@ -69,7 +70,7 @@ public class FixedSlot extends RefreshableFeature {
         return new TabList.Entry(
                 id,
                 manager.getConfiguration().getDirection().getEntryName(viewer, slot, LayoutManagerImpl.isTeamsEnabled()),
-                manager.getSkinManager().getSkin(viewer.layoutData.currentLayout.fixedSlotSkins.get(this).updateAndGet()),
+                getSkin(viewer),
                 true,
                 ping,
                 0,
@@ -79,6 +80,38 @@ public class FixedSlot extends RefreshableFeature {
         );
     }
 
+    /**
+     * Returns skin of this slot for given viewer. If the skin is not downloaded yet, default skin
+     * is returned and the entry is re-sent to the viewer once the skin is downloaded.
+     *
+     * @param   viewer
+     *          Player viewing the slot
+     * @return  Skin of this slot for given viewer
+     */
+    @Nullable
+    private TabList.Skin getSkin(@NotNull TabPlayer viewer) {
+        String skin = viewer.layoutData.currentLayout.fixedSlotSkins.get(this).updateAndGet();
+        return manager.getSkinManager().getSkin(skin, () -> TAB.getInstance().getCpu().runMeasuredTask(
+                getFeatureName(), TabConstants.CpuUsageCategory.SKIN_DOWNLOAD, () -> onSkinDownload(viewer, skin)));
+    }
+
+    /**
+     * Re-sends this slot to given viewer with the downloaded skin if the viewer
+     * still sees this slot with the same skin.
+     *
+     * @param   viewer
+     *          Player viewing the slot
+     * @param   skin
+     *          Skin definition which was downloaded
+     */
+    private void onSkinDownload(@NotNull TabPlayer viewer, @NotNull String skin) {
+        if (!viewer.isOnline() || viewer.layoutData.currentLayout == null || viewer.layoutData.currentLayout.view.getPattern() != pattern) return;
+        Property property = viewer.layoutData.currentLayout.fixedSlotSkins.get(this);
+        if (property == null || !property.get().equals(skin)) return;
+        viewer.getTabList().removeEntry(id);
+        viewer.getTabList().addEntry(createEntry(viewer));
+    }
+
     /**
      * Creates a new instance with given parameters.
      *
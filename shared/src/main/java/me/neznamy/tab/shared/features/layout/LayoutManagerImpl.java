@@ -8,6 +8,9 @@ import me.neznamy.tab.api.tablist.layout.LayoutManager;
 import me.neznamy.tab.shared.Property;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants;
+import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
+import me.neznamy.tab.shared.cpu.CpuManager;
+import me.neznamy.tab.shared.cpu.TimedCaughtTask;
 import me.neznamy.tab.shared.features.layout.LayoutConfiguration.LayoutDefinition;
 import me.neznamy.tab.shared.features.layout.skin.SkinManager;
 import me.neznamy.tab.shared.features.pingspoof.PingSpoof;
@@ -24,11 +27,15 @@ import java.util.Map.Entry;
 public class LayoutManagerImpl extends RefreshableFeature implements LayoutManager, JoinListener, QuitListener, VanishListener, Loadable,
         UnLoadable, TabListClearListener {
 
+    /** Interval in milliseconds of checking for visibility changes from sources without an event */
+    private static final int VISIBILITY_CHECK_INTERVAL = 5000;
+
     private final LayoutConfiguration configuration;
     private final SkinManager skinManager;
     private final Map<Integer, UUID> uuids = new HashMap<>();
     private final Map<String, LayoutPattern> layouts = new LinkedHashMap<>();
-    private final Map<TabPlayer, String> sortedPlayers = Collections.synchronizedMap(new TreeMap<>(Comparator.comparing(p -> p.layoutData.sortingString)));
+    private final Comparator<TabPlayer> sortingComparator = Comparator.comparing(p -> p.layoutData.sortingString);
+    private final Map<TabPlayer, String> sortedPlayers = Collections.synchronizedMap(new TreeMap<>(sortingComparator));
     private PlayerList playerList;
     private PingSpoof pingSpoof;
     @Getter private static boolean teamsEnabled;
@@ -61,6 +68,24 @@ public class LayoutManagerImpl extends RefreshableFeature implements LayoutManag
         for (TabPlayer p : TAB.getInstance().getOnlinePlayers()) {
             onJoin(p);
         }
+        CpuManager cpu = TAB.getInstance().getCpu();
+        cpu.getProcessingThread().repeatTask(new TimedCaughtTask(cpu, this::checkVisibility, getFeatureName(),
+                CpuUsageCategory.LAYOUT_VISIBILITY_CHECK), VISIBILITY_CHECK_INTERVAL);
+    }
+
+    /**
+     * Re-evaluates visibility of all players for all viewers. Vanish status changes update
+     * layouts immediately, this catches other sources, such as hidden players or vanish
+     * integrations without an event.
+     */
+    private void checkVisibility() {
+        TabPlayer[] players = TAB.getInstance().getOnlinePlayers();
+        for (TabPlayer viewer : players) {
+            if (viewer.layoutData.currentLayout == null) continue;
+            for (TabPlayer target : players) {
+                viewer.layoutData.currentLayout.view.updateVisibility(target);
+            }
+        }
     }
 
     @Override
@@ -73,7 +98,10 @@ public class LayoutManagerImpl extends RefreshableFeature implements LayoutManag
             p.layoutData.currentLayout = new LayoutData(view);
             view.send();
         }
-        tickAllLayouts();
+        for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
+            if (all == p) continue;
+            if (all.layoutData.currentLayout != null) all.layoutData.currentLayout.view.addPlayer(p);
+        }
 
         // Unformat original entries for players who can see a layout to avoid spaces due to unparsed placeholders and such
         if (highest == null) return;
@@ -87,7 +115,7 @@ public class LayoutManagerImpl extends RefreshableFeature implements LayoutManag
         sortedPlayers.remove(p);
         for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
             if (all == p) continue;
-            if (all.layoutData.currentLayout != null) all.layoutData.currentLayout.view.tick();
+            if (all.layoutData.currentLayout != null) all.layoutData.currentLayout.view.removePlayer(p);
         }
     }
 
@@ -124,7 +152,10 @@ public class LayoutManagerImpl extends RefreshableFeature implements LayoutManag
 
     @Override
     public void onVanishStatusChange(@NotNull TabPlayer p) {
-        tickAllLayouts();
+        for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
+            if (all == p) continue;
+            if (all.layoutData.currentLayout != null) all.layoutData.currentLayout.view.updateVisibility(p);
+        }
     }
 
     private @Nullable LayoutPattern getHighestLayout(@NotNull TabPlayer p) {
@@ -143,7 +174,7 @@ public class LayoutManagerImpl extends RefreshableFeature implements LayoutManag
         sortedPlayers.remove(p);
         p.layoutData.sortingString = teamName;
         sortedPlayers.put(p, teamName);
-        tickAllLayouts();
+        updatePlayer(p);
     }
 
     @Override
@@ -152,11 +183,16 @@ public class LayoutManagerImpl extends RefreshableFeature implements LayoutManag
     }
 
     /**
-     * Ticks layouts for all players.
+     * Moves player to correct position in layouts of all players after their
+     * sorting or group condition result changed. Only slots affected by the
+     * move are updated.
+     *
+     * @param   p
+     *          Player to move
      */
-    public void tickAllLayouts() {
+    public void updatePlayer(@NotNull TabPlayer p) {
         for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
-            if (all.layoutData.currentLayout != null) all.layoutData.currentLayout.view.tick();
+            if (all.layoutData.currentLayout != null) all.layoutData.currentLayout.view.updatePlayer(p);
         }
     }
 
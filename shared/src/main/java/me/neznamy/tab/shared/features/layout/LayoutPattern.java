@@ -59,7 +59,7 @@ public class LayoutPattern extends RefreshableFeature implements Layout {
 
     @Override
     public void refresh(@NotNull TabPlayer refreshed, boolean force) {
-        manager.tickAllLayouts();
+        manager.updatePlayer(refreshed);
     }
 
     // ------------------
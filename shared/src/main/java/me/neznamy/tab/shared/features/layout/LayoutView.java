@@ -7,11 +7,11 @@ import me.neznamy.tab.shared.placeholders.conditions.Condition;
 import me.neznamy.tab.shared.platform.TabList;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 @Getter
 public class LayoutView {
@@ -24,6 +24,12 @@ public class LayoutView {
     private final Collection<FixedSlot> fixedSlots;
     private final List<ParentGroup> groups = new ArrayList<>();
 
+    /** Players this viewer can see, cached to avoid evaluating vanish integrations on every change */
+    private final Set<TabPlayer> visiblePlayers = new HashSet<>();
+
+    /** Group each visible player belongs to, players not meeting condition of any group are not present */
+    private final Map<TabPlayer, ParentGroup> playerGroups = new HashMap<>();
+
     public LayoutView(LayoutManagerImpl manager, LayoutPattern pattern, TabPlayer viewer) {
         this.manager = manager;
         this.viewer = viewer;
@@ -70,20 +76,113 @@ public class LayoutView {
         }
     }
 
+    /**
+     * Rebuilds the whole layout from scratch, including visibility of all players.
+     */
     public void tick() {
-        Stream<TabPlayer> str = manager.getSortedPlayers().keySet().stream().filter(viewer::canSee);
-        List<TabPlayer> players = str.collect(Collectors.toList());
+        visiblePlayers.clear();
+        playerGroups.clear();
+        List<TabPlayer> players = new ArrayList<>();
+        for (TabPlayer p : new ArrayList<>(manager.getSortedPlayers().keySet())) {
+            if (!viewer.canSee(p)) continue;
+            visiblePlayers.add(p);
+            players.add(p);
+        }
         for (ParentGroup group : groups) {
             group.tick(players);
+            for (TabPlayer p : group.getSortedPlayers()) {
+                playerGroups.put(p, group);
+            }
         }
     }
 
-    public PlayerSlot getSlot(@NotNull TabPlayer target) {
+    /**
+     * Adds a newly joined player into the layout if the viewer can see them,
+     * only updating slots affected by the insertion.
+     *
+     * @param   p
+     *          Player to add
+     */
+    public void addPlayer(@NotNull TabPlayer p) {
+        if (visiblePlayers.contains(p) || !viewer.canSee(p)) return;
+        visiblePlayers.add(p);
+        ParentGroup group = findGroup(p);
+        if (group == null) return;
+        playerGroups.put(p, group);
+        group.addPlayer(p);
+    }
+
+    /**
+     * Removes player from the layout, only updating slots affected by the removal.
+     *
+     * @param   p
+     *          Player to remove
+     */
+    public void removePlayer(@NotNull TabPlayer p) {
+        visiblePlayers.remove(p);
+        ParentGroup group = playerGroups.remove(p);
+        if (group != null) group.removePlayer(p);
+    }
+
+    /**
+     * Moves player to a new position after their sorting string or group condition result changed.
+     *
+     * @param   p
+     *          Player to update
+     */
+    public void updatePlayer(@NotNull TabPlayer p) {
+        if (!visiblePlayers.contains(p)) return;
+        ParentGroup oldGroup = playerGroups.get(p);
+        ParentGroup newGroup = findGroup(p);
+        if (oldGroup == newGroup) {
+            if (oldGroup != null) oldGroup.movePlayer(p);
+            return;
+        }
+        if (oldGroup != null) {
+            playerGroups.remove(p);
+            oldGroup.removePlayer(p);
+        }
+        if (newGroup != null) {
+            playerGroups.put(p, newGroup);
+            newGroup.addPlayer(p);
+        }
+    }
+
+    /**
+     * Re-evaluates whether the viewer can see given player and adds or removes
+     * the player if the cached result changed.
+     *
+     * @param   p
+     *          Player whose visibility may have changed
+     */
+    public void updateVisibility(@NotNull TabPlayer p) {
+        boolean canSee = viewer.canSee(p);
+        if (canSee == visiblePlayers.contains(p)) return;
+        if (canSee) {
+            addPlayer(p);
+        } else {
+            removePlayer(p);
+        }
+    }
+
+    /**
+     * Returns first group whose condition given player meets.
+     *
+     * @param   p
+     *          Player to find group for
+     * @return  Group the player belongs into or {@code null} if none
+     */
+    @Nullable
+    private ParentGroup findGroup(@NotNull TabPlayer p) {
         for (ParentGroup group : groups) {
-            if (group.getPlayers().containsKey(target)) {
-                return group.getPlayers().get(target);
-            }
+            if (group.isConditionMet(p)) return group;
         }
         return null;
     }
+
+    @Nullable
+    public PlayerSlot getSlot(@NotNull TabPlayer target) {
+        ParentGroup group = playerGroups.get(target);
+        return group == null ? null : group.getPlayers().get(target);
+    }
 }
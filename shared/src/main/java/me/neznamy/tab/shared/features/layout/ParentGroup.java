@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +22,9 @@ public class ParentGroup {
     @Getter private final Map<Integer, PlayerSlot> playerSlots = new HashMap<>();
     @Getter private final Map<TabPlayer, PlayerSlot> players = new HashMap<>();
 
+    /** All players meeting condition of this group in display order, including those not fitting into slots */
+    @Getter private final List<TabPlayer> sortedPlayers = new ArrayList<>();
+
     public ParentGroup(@NotNull LayoutView layout, @NotNull GroupPattern pattern, @NotNull TabPlayer viewer) {
         this.layout = layout;
         condition = Condition.getCondition(pattern.getCondition());
@@ -31,36 +35,147 @@ public class ParentGroup {
         }
     }
 
+    /**
+     * Returns {@code true} if given player belongs into this group, {@code false} if not.
+     *
+     * @param   p
+     *          Player to check
+     * @return  {@code true} if player meets condition of this group, {@code false} if not
+     */
+    public boolean isConditionMet(@NotNull TabPlayer p) {
+        return condition == null || condition.isMet(p);
+    }
+
+    /**
+     * Takes all players meeting condition of this group from given list and fills all slots from scratch.
+     *
+     * @param   remainingPlayers
+     *          Sorted players not taken by any previous group yet
+     */
     public void tick(@NotNull List<TabPlayer> remainingPlayers) {
         players.clear();
-        List<TabPlayer> meetingCondition = new ArrayList<>();
+        sortedPlayers.clear();
 
         // High-performance way to filter players
         remainingPlayers.removeIf(p -> {
-            boolean met = (condition == null || condition.isMet(p));
-            if (met) meetingCondition.add(p);
+            boolean met = isConditionMet(p);
+            if (met) sortedPlayers.add(p);
             return met;
         });
+        render(0, slots.length - 1);
+    }
+
+    /**
+     * Inserts player into this group at position given by sorting and
+     * updates slots of players which were shifted by the insertion.
+     *
+     * @param   p
+     *          Player to add
+     */
+    public void addPlayer(@NotNull TabPlayer p) {
+        int index = getInsertionIndex(p);
+        sortedPlayers.add(index, p);
+        render(index, sortedPlayers.size() - 1);
+    }
+
+    /**
+     * Removes player from this group and updates slots of players which
+     * were shifted by the removal.
+     *
+     * @param   p
+     *          Player to remove
+     */
+    public void removePlayer(@NotNull TabPlayer p) {
+        int index = sortedPlayers.indexOf(p);
+        if (index == -1) return;
+        sortedPlayers.remove(index);
+        render(index, sortedPlayers.size()); // Slot of previously last player becomes empty
+    }
+
+    /**
+     * Moves player to a new position after their sorting string changed and
+     * updates slots between the old and new position.
+     *
+     * @param   p
+     *          Player to move
+     */
+    public void movePlayer(@NotNull TabPlayer p) {
+        int oldIndex = sortedPlayers.indexOf(p);
+        if (oldIndex == -1) return;
+        sortedPlayers.remove(oldIndex);
+        int newIndex = getInsertionIndex(p);
+        sortedPlayers.add(newIndex, p);
+        if (oldIndex == newIndex) return;
+        render(Math.min(oldIndex, newIndex), Math.max(oldIndex, newIndex));
+    }
+
+    /**
+     * Returns index where given player should be inserted to keep players sorted.
+     * Players with equal sorting string are placed after existing ones.
+     *
+     * @param   p
+     *          Player to find index for
+     * @return  Index to insert player at
+     */
+    private int getInsertionIndex(@NotNull TabPlayer p) {
+        int index = Collections.binarySearch(sortedPlayers, p, layout.getManager().getSortingComparator());
+        return index < 0 ? -index - 1 : index + 1;
+    }
 
-        for (int index = 0; index < slots.length; index++) {
-            int slot = slots[index];
-            if (layout.getManager().getConfiguration().isRemainingPlayersTextEnabled() && index == slots.length - 1 && playerSlots.size() < meetingCondition.size()) {
-                playerSlots.get(slot).setText(String.format(layout.getManager().getConfiguration().getRemainingPlayersText(), meetingCondition.size() - playerSlots.size() + 1));
-                break;
-            }
-            if (meetingCondition.size() > index) {
-                TabPlayer p = meetingCondition.get(index);
-                playerSlots.get(slot).setPlayer(p);
-                players.put(p, playerSlots.get(slot));
-            } else {
-                playerSlots.get(slot).setText("");
-            }
+    /**
+     * Updates slots of players in given index range. Slots which already
+     * display the correct content do not send any packets. The last slot is
+     * always updated if remaining players text is enabled, because the amount
+     * of players may have changed.
+     *
+     * @param   fromIndex
+     *          Index of first player which may have changed slot
+     * @param   toIndex
+     *          Index of last player which may have changed slot (inclusive)
+     */
+    private void render(int fromIndex, int toIndex) {
+        if (slots.length == 0) return;
+        LayoutConfiguration configuration = layout.getManager().getConfiguration();
+        int lastIndex = Math.min(toIndex, slots.length - 1);
+        for (int index = fromIndex; index <= lastIndex; index++) {
+            renderSlot(configuration, index);
+        }
+        if (configuration.isRemainingPlayersTextEnabled() && lastIndex < slots.length - 1) {
+            renderSlot(configuration, slots.length - 1);
         }
     }
-    
+
+    /**
+     * Updates slot at given index to display player at the same index, empty text
+     * or remaining players text if this is the last slot and not all players fit.
+     *
+     * @param   configuration
+     *          Layout configuration
+     * @param   index
+     *          Index of the slot
+     */
+    private void renderSlot(@NotNull LayoutConfiguration configuration, int index) {
+        PlayerSlot slot = playerSlots.get(slots[index]);
+        TabPlayer previous = slot.getPlayer();
+        if (configuration.isRemainingPlayersTextEnabled() && index == slots.length - 1 && playerSlots.size() < sortedPlayers.size()) {
+            if (previous != null) players.remove(previous, slot);
+            slot.setText(String.format(configuration.getRemainingPlayersText(), sortedPlayers.size() - playerSlots.size() + 1));
+            return;
+        }
+        if (sortedPlayers.size() > index) {
+            TabPlayer p = sortedPlayers.get(index);
+            if (previous != null && previous != p) players.remove(previous, slot);
+            slot.setPlayer(p);
+            players.put(p, slot);
+        } else {
+            if (previous != null) players.remove(previous, slot);
+            slot.setText("");
+        }
+    }
+
     public void sendSlots() {
         for (PlayerSlot s : playerSlots.values()) {
             viewer.getTabList().addEntry(s.getSlot(viewer));
         }
     }
-}
\ No newline at end of file
+}
@@ -13,6 +13,11 @@ public class SignedTexture extends SkinSource {
         super(file, "signed_textures");
     }
 
+    @Override
+    protected boolean isRemote() {
+        return false;
+    }
+
     @Override
     @NotNull
     public Skin download(@NotNull String textureBase64) {
@@ -2,27 +2,30 @@ package me.neznamy.tab.shared.features.layout.skin;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import lombok.Getter;
 import me.neznamy.tab.shared.config.file.ConfigurationFile;
-import me.neznamy.tab.shared.config.file.YamlConfigurationFile;
+import me.neznamy.tab.shared.config.file.DebouncedYamlConfigurationFile;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.platform.TabList.Skin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
- * Skin manager for layout feature.
+ * Skin manager for layout feature. Skins which are not cached yet are downloaded
+ * asynchronously, default skin is used in the meantime.
  */
 public class SkinManager {
 
-    /** Skins defined in configuration that are invalid */
-    private final List<String> invalidSkins = new ArrayList<>();
+    /** Maximum time in milliseconds to wait for configured default skins on load */
+    private static final int DEFAULT_SKIN_TIMEOUT = 10000;
 
     /** Configured default skin */
     @Getter private Skin defaultSkin;
@@ -45,14 +48,14 @@ public class SkinManager {
         try {
             File f = new File(TAB.getInstance().getDataFolder(), "skincache.yml");
             if (f.exists() || f.createNewFile()) {
-                ConfigurationFile cache = new YamlConfigurationFile(null, f);
+                ConfigurationFile cache = new DebouncedYamlConfigurationFile(null, f, TAB.getInstance().getConfiguration().getConfig().getDataSaveDelay());
                 sources.put("player", new PlayerSkin(cache));
                 sources.put("mineskin", new MineSkin(cache));
                 sources.put("texture", new Texture(cache));
                 sources.put("signed_texture", new SignedTexture(cache));
-                this.defaultSkin = getSkin(defaultSkin);
+                this.defaultSkin = getDefaultSkin(defaultSkin);
                 for (Map.Entry<Integer, String> entry : defaultSkinHashMap.entrySet()) {
-                    Skin skin = getSkin(entry.getValue());
+                    Skin skin = getDefaultSkin(entry.getValue());
                     if (skin != null) this.defaultSkinHashMap.put(entry.getKey(), skin);
                 }
             } else {
@@ -76,27 +79,71 @@ public class SkinManager {
     }
 
     /**
-     * Returns skin from given skin definition. If Skin is invalid, warn is printed and
-     * {@code null} is returned.
+     * Returns skin from given skin definition for use as a default skin. If it is not cached,
+     * waits for the download to finish, but for at most {@link #DEFAULT_SKIN_TIMEOUT} milliseconds.
      *
      * @param   skin
      *          Full skin definition
+     * @return  Skin from given definition or {@code null} if invalid or not downloaded in time
+     */
+    @Nullable
+    private Skin getDefaultSkin(@NotNull String skin) {
+        CompletableFuture<Skin> future = download(skin);
+        if (future == null) return null;
+        try {
+            return future.get(DEFAULT_SKIN_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            TAB.getInstance().getErrorManager().printError("Failed to load default layout skin \"" + skin + "\" in time", e);
+        }
+        return null;
+    }
+
+    /**
+     * Returns skin from given skin definition. If Skin is invalid, default skin is returned.
+     * If it is not cached yet, download is started, default skin is returned and given
+     * callback is run once the skin is successfully downloaded. If definition is invalid,
+     * warn is printed and {@code null} is returned.
+     *
+     * @param   skin
+     *          Full skin definition
+     * @param   onDownload
+     *          Callback to run in skin downloading thread once skin is downloaded if it is not cached
      * @return  Skin from given definition
      */
     @Nullable
-    public Skin getSkin(@NotNull String skin) {
-        if (invalidSkins.contains(skin)) return defaultSkin;
+    public Skin getSkin(@NotNull String skin, @Nullable Runnable onDownload) {
+        CompletableFuture<Skin> future = download(skin);
+        if (future == null) return null;
+        if (future.isDone()) {
+            Skin value = future.getNow(null);
+            return value == null ? defaultSkin : value;
+        }
+        if (onDownload != null) {
+            future.thenAccept(value -> {
+                if (value != null) onDownload.run();
+            });
+        }
+        return defaultSkin;
+    }
+
+    /**
+     * Returns future of skin from given skin definition from its source. If definition
+     * is invalid, warn is printed and {@code null} is returned.
+     *
+     * @param   skin
+     *          Full skin definition
+     * @return  Future completed with skin or {@code null} if download failed, {@code null} if definition is invalid
+     */
+    @Nullable
+    private CompletableFuture<Skin> download(@NotNull String skin) {
         for (Entry<String, SkinSource> entry : sources.entrySet()) {
             if (skin.startsWith(entry.getKey() + ":")) {
-                Skin value = entry.getValue().getSkin(skin.substring(entry.getKey().length() + 1));
-                if (value == null) {
-                    invalidSkins.add(skin);
-                    return defaultSkin;
-                }
-                return value;
+                return entry.getValue().getSkin(skin.substring(entry.getKey().length() + 1));
             }
         }
         TAB.getInstance().getConfigHelper().startup().invalidLayoutSkinDefinition(skin);
         return null;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package me.neznamy.tab.shared.features.layout.skin;
 
+import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.config.file.ConfigurationFile;
 import me.neznamy.tab.shared.platform.TabList.Skin;
 import org.jetbrains.annotations.NotNull;
@@ -11,27 +12,47 @@ import org.json.simple.parser.ParseException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Abstract class for skin sources for getting skins.
+ * Abstract class for skin sources for getting skins. Skins requiring a web request are
+ * downloaded in skin downloading thread pool, with concurrent requests for the same skin
+ * sharing a single download, other skins are resolved immediately. Failed downloads are
+ * remembered for {@link #FAILURE_EXPIRE_TIME} milliseconds to not query the API again
+ * for every slot using the same invalid skin.
  */
 public abstract class SkinSource {
 
+    /** Connect and read timeout of skin API requests in milliseconds */
+    private static final int TIMEOUT = 5000;
+
+    /** Time in milliseconds for which a failed download is not retried */
+    private static final long FAILURE_EXPIRE_TIME = TimeUnit.MINUTES.toMillis(5);
+
     /** Configuration file for storing cache */
     @NotNull private final ConfigurationFile file;
 
     /** Cache path of this source */
     @NotNull private final String path;
 
-    /** Current cache of this source */
+    /** Current cache of this source, guarded by {@code this} */
     @NotNull private final Map<String, List<String>> cache;
 
     /** Cached skins as skin objects */
-    @NotNull private final Map<String, Skin> skins = new HashMap<>();
+    @NotNull private final Map<String, Skin> skins = new ConcurrentHashMap<>();
+
+    /** Downloads currently in progress */
+    @NotNull private final Map<String, CompletableFuture<Skin>> downloads = new ConcurrentHashMap<>();
+
+    /** Skins which failed to download and time when they may be retried */
+    @NotNull private final Map<String, Long> failedSkins = new ConcurrentHashMap<>();
 
     protected SkinSource(@NotNull ConfigurationFile file, @NotNull String path) {
         this.file = file;
@@ -43,24 +64,79 @@ public abstract class SkinSource {
     }
 
     /**
-     * Returns skin using given skin definition.
+     * Returns skin using given skin definition. If the skin is not cached, it starts
+     * downloading it (unless it is already being downloaded or recently failed to)
+     * and the returned future completes once the download finishes. Skins which do not
+     * require a web request are resolved immediately and returned future is already completed.
      *
      * @param   skin
      *          Skin definition
-     * @return  Skin from definition or null if invalid
+     * @return  Future completed with skin from definition or with {@code null} if invalid
      */
-    @Nullable
-    public Skin getSkin(@NotNull String skin) {
-        if (skins.containsKey(skin)) {
-            return skins.get(skin);
+    @NotNull
+    public CompletableFuture<Skin> getSkin(@NotNull String skin) {
+        Skin cached = skins.get(skin);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        Long retryTime = failedSkins.get(skin);
+        if (retryTime != null) {
+            if (retryTime > System.currentTimeMillis()) return CompletableFuture.completedFuture(null);
+            failedSkins.remove(skin);
+        }
+        if (!isRemote()) {
+            Skin resolved = download(skin);
+            onDownload(skin, resolved);
+            return CompletableFuture.completedFuture(resolved);
         }
-        Skin downloaded = download(skin);
+        CompletableFuture<Skin> future = new CompletableFuture<>();
+        CompletableFuture<Skin> existing = downloads.putIfAbsent(skin, future);
+        if (existing != null) return existing;
+        TAB.getInstance().getCpu().getSkinDownloadThread().submit(() -> {
+            Skin downloaded = null;
+            try {
+                downloaded = download(skin);
+            } finally {
+                onDownload(skin, downloaded);
+                future.complete(downloaded);
+            }
+        }).whenComplete((result, error) -> {
+            // Task did not run because the thread pool is already shut down
+            if (!future.isDone()) {
+                downloads.remove(skin, future);
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns {@code true} if downloading skins of this source requires a web request
+     * and should be done asynchronously, {@code false} if the skin is available immediately.
+     *
+     * @return  {@code true} if skins are downloaded from the web, {@code false} if not
+     */
+    protected boolean isRemote() {
+        return true;
+    }
+
+    /**
+     * Saves result of a finished download.
+     *
+     * @param   skin
+     *          Skin definition
+     * @param   downloaded
+     *          Downloaded skin or {@code null} if download failed
+     */
+    private void onDownload(@NotNull String skin, @Nullable Skin downloaded) {
         if (downloaded != null) {
             skins.put(skin, downloaded);
-            cache.put(skin, Arrays.asList(downloaded.getValue(), downloaded.getSignature()));
-            file.set(path, cache);
+            synchronized (this) {
+                cache.put(skin, Arrays.asList(downloaded.getValue(), downloaded.getSignature()));
+                file.set(path, new HashMap<>(cache)); // Copy to not modify saved values while the file is being written
+            }
+        } else {
+            failedSkins.put(skin, System.currentTimeMillis() + FAILURE_EXPIRE_TIME);
         }
-        return downloaded;
+        downloads.remove(skin);
     }
 
     /**
@@ -75,7 +151,10 @@ public abstract class SkinSource {
 
     @NotNull
     protected JSONObject getResponse(@NotNull String url) throws IOException, ParseException {
-        try (InputStreamReader reader = new InputStreamReader(new URL(url).openStream())) {
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        try (InputStreamReader reader = new InputStreamReader(connection.getInputStream())) {
             return (JSONObject) new JSONParser().parse(reader);
         }
     }
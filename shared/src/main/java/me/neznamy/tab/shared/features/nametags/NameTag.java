@@ -54,7 +54,7 @@ public class NameTag extends RefreshableFeature implements NameTagManager, JoinL
         TAB.getInstance().getFeatureManager().registerFeature(TabConstants.Feature.NAME_TAGS + "-Condition", disableChecker);
         TAB.getInstance().getFeatureManager().registerFeature(TabConstants.Feature.NAME_TAGS_VISIBILITY, new VisibilityRefresher(this));
         if (proxy != null) {
-            proxy.registerMessage(NameTagUpdateProxyPlayer.class, in -> new NameTagUpdateProxyPlayer(in, this));
+            proxy.registerMessage(TabConstants.ProxyMessageId.NAME_TAG_UPDATE, NameTagUpdateProxyPlayer.class, in -> new NameTagUpdateProxyPlayer(in, this));
         }
     }
 
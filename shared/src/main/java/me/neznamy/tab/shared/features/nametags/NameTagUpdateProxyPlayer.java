@@ -54,6 +54,12 @@ public class NameTagUpdateProxyPlayer extends ProxyMessage {
         return feature.getCustomThread();
     }
 
+    @Override
+    @NotNull
+    public UUID getUpdatedPlayer() {
+        return playerId;
+    }
+
     @Override
     public void write(@NotNull ByteArrayDataOutput out) {
         writeUUID(out, playerId);
@@ -53,7 +53,7 @@ public class PlayerList extends RefreshableFeature implements TabListFormatManag
             }
         }, getFeatureName(), CpuUsageCategory.ANTI_OVERRIDE_TABLIST_PERIODIC), 500);
         if (proxy != null) {
-            proxy.registerMessage(PlayerListUpdateProxyPlayer.class, in -> new PlayerListUpdateProxyPlayer(in, this));
+            proxy.registerMessage(TabConstants.ProxyMessageId.PLAYER_LIST_UPDATE, PlayerListUpdateProxyPlayer.class, in -> new PlayerListUpdateProxyPlayer(in, this));
         }
     }
 
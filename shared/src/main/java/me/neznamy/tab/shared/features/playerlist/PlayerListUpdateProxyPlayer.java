@@ -39,6 +39,12 @@ public class PlayerListUpdateProxyPlayer extends ProxyMessage {
         format = in.readUTF();
     }
 
+    @Override
+    @NotNull
+    public UUID getUpdatedPlayer() {
+        return playerId;
+    }
+
     @Override
     public void write(@NotNull ByteArrayDataOutput out) {
         writeUUID(out, playerId);
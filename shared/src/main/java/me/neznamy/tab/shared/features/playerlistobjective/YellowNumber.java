@@ -65,7 +65,7 @@ public class YellowNumber extends RefreshableFeature implements JoinListener, Qu
         TAB.getInstance().getFeatureManager().registerFeature(TabConstants.Feature.YELLOW_NUMBER + "-Condition", disableChecker);
         TAB.getInstance().getFeatureManager().registerFeature(TabConstants.Feature.YELLOW_NUMBER_TEXT, titleRefresher);
         if (proxy != null) {
-            proxy.registerMessage(UpdateProxyPlayer.class, UpdateProxyPlayer::new);
+            proxy.registerMessage(TabConstants.ProxyMessageId.YELLOW_NUMBER_UPDATE, UpdateProxyPlayer.class, UpdateProxyPlayer::new);
         }
     }
 
@@ -324,6 +324,12 @@ public class YellowNumber extends RefreshableFeature implements JoinListener, Qu
             return customThread;
         }
 
+        @Override
+        @NotNull
+        public UUID getUpdatedPlayer() {
+            return playerId;
+        }
+
         @Override
         public void write(@NotNull ByteArrayDataOutput out) {
             writeUUID(out, playerId);
@@ -87,6 +87,10 @@ public class ProxyPlayer {
     @Nullable
     public Object serverGroup;
 
+    /** Proxy the player is connected to, {@code null} if unknown */
+    @Nullable
+    private UUID origin;
+
     /** Player's connection state */
     @NotNull
     private ConnectionState connectionState = ConnectionState.QUEUED;
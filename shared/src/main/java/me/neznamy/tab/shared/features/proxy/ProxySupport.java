@@ -3,11 +3,16 @@ package me.neznamy.tab.shared.features.proxy;
 import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import me.neznamy.tab.api.event.EventHandler;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants;
 import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
+import me.neznamy.tab.shared.TabConstants.ProxyMessageId;
+import me.neznamy.tab.shared.cpu.ThreadExecutor;
 import me.neznamy.tab.shared.cpu.TimedCaughtTask;
 import me.neznamy.tab.shared.data.Server;
 import me.neznamy.tab.shared.event.impl.TabPlaceholderRegisterEvent;
@@ -15,14 +20,26 @@ import me.neznamy.tab.shared.features.proxy.message.*;
 import me.neznamy.tab.shared.features.types.*;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import me.neznamy.tab.shared.util.PerformanceUtil;
+import me.neznamy.tab.shared.util.PlayerIndex;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Feature synchronizing player display data between
@@ -37,23 +54,92 @@ public abstract class ProxySupport extends TabFeature implements JoinListener, Q
     /** Proxy players on other proxies by their UUID */
     @NotNull protected final Map<UUID, ProxyPlayer> proxyPlayers = new ConcurrentHashMap<>();
 
+    /** Proxy players on other proxies partitioned by server */
+    @NotNull private final PlayerIndex<ProxyPlayer> proxyPlayerIndex = new PlayerIndex<>(ProxyPlayer[]::new);
+
     /** Queued data of players on other proxies by their UUID */
     @NotNull private final Map<UUID, QueuedData> queuedData = new ConcurrentHashMap<>();
 
-    /** UUID of this proxy to ignore messages coming from the same proxy */
-    @NotNull private final UUID proxy = UUID.randomUUID();
+    /**
+     * Version of binary message format. Messages in legacy format start with length of proxy UUID string,
+     * which makes their first byte always {@code 0}, so the version byte also tells the formats apart.
+     */
+    public static final byte PROTOCOL_VERSION = 1;
+
+    /** Length of message prefix in bytes which only depends on sending proxy in both binary and legacy format */
+    private static final int ORIGIN_PREFIX_BYTES = 17;
+
+    /** Length of Base64 encoded message prefix which only depends on sending proxy in both binary and legacy format */
+    private static final int ORIGIN_PREFIX_CHARS = 22;
+
+    /** Interval in milliseconds in which collected player updates are sent */
+    private static final int UPDATE_FLUSH_INTERVAL = 50;
+
+    /** Maximum amount of players sent in a single snapshot chunk */
+    private static final int LOAD_CHUNK_SIZE = 100;
+
+    /** Maximum amount of sent state changes remembered for answering load requests with changes only */
+    private static final int JOURNAL_SIZE = 4096;
+
+    /** Time in milliseconds to wait for answers to load request before removing players of proxies which did not answer */
+    private static final int LOAD_RESPONSE_TIMEOUT = 5000;
+
+    /** State of previous instance kept over plugin reload to only request changes since then */
+    @Nullable private static RetainedState retainedState;
+
+    /**
+     * UUID of this proxy to ignore messages coming from the same proxy. It is kept over plugin
+     * reloads and identifies the sequence of state versions, changing on every proxy restart.
+     */
+    @NotNull private final UUID proxy;
+
+    /** Whether messages should be sent in legacy format for proxies running older versions */
+    private final boolean legacyProtocol = TAB.getInstance().getConfiguration().getConfig().isProxyLegacyProtocol();
 
     private EventHandler<TabPlaceholderRegisterEvent> eventHandler;
     @NotNull private final Map<String, Function<ByteArrayDataInput, ProxyMessage>> stringToClass = new HashMap<>();
     @NotNull private final Map<Class<? extends ProxyMessage>, String> classToString = new HashMap<>();
+    @NotNull private final Map<Integer, Function<ByteArrayDataInput, ProxyMessage>> idToClass = new HashMap<>();
+    @NotNull private final Map<Class<? extends ProxyMessage>, Integer> classToId = new HashMap<>();
+
+    /** Amount of received messages waiting to be decoded or processed */
+    private final AtomicInteger queuedMessages = new AtomicInteger();
+
+    /** Amount of received messages which were decoded */
+    private final LongAdder decodedMessages = new LongAdder();
+
+    /** Total time between receiving and decoding of all decoded messages in nanoseconds */
+    private final LongAdder decodeLatency = new LongAdder();
+
+    /** Latest player updates waiting to be sent, also used as lock to keep order of sent messages */
+    @NotNull private final Map<UpdateKey, ProxyMessage> pendingUpdates = new LinkedHashMap<>();
+
+    /** State version of this proxy, increased with every sent state change, guarded by {@link #pendingUpdates} */
+    private long stateVersion;
+
+    /** Recently sent state changes in order, guarded by {@link #pendingUpdates} */
+    @NotNull private final ArrayDeque<ProxyMessage> journal = new ArrayDeque<>();
+
+    /** State versions of other proxies this proxy has processed all changes up to */
+    @NotNull private final Map<UUID, Long> knownVersions = new ConcurrentHashMap<>();
+
+    /** Proxies which answered load request of this proxy */
+    @NotNull private final Set<UUID> respondedProxies = ConcurrentHashMap.newKeySet();
+
+    /** Players received in chunks of currently incoming snapshots by sending proxy */
+    @NotNull private final Map<UUID, Set<UUID>> snapshotPlayers = new HashMap<>();
 
     protected ProxySupport() {
-        registerMessage(Load.class, Load::new);
-        registerMessage(LoadRequest.class, in -> new LoadRequest());
-        registerMessage(PlayerJoin.class, PlayerJoin::new);
-        registerMessage(PlayerQuit.class, PlayerQuit::new);
-        registerMessage(ServerSwitch.class, ServerSwitch::new);
-        registerMessage(UpdateVanishStatus.class, UpdateVanishStatus::new);
+        RetainedState retained = retainedState;
+        proxy = retained == null ? UUID.randomUUID() : retained.proxy;
+        registerMessage(ProxyMessageId.LOAD, Load.class, Load::new, Load::fromLegacy);
+        registerMessage(ProxyMessageId.LOAD_REQUEST, LoadRequest.class, LoadRequest::new, in -> new LoadRequest(Collections.emptyMap()));
+        registerMessage(ProxyMessageId.LOAD_DELTA, LoadDelta.class, in -> new LoadDelta(in, this));
+        registerMessage(ProxyMessageId.PLAYER_JOIN, PlayerJoin.class, PlayerJoin::new);
+        registerMessage(ProxyMessageId.PLAYER_QUIT, PlayerQuit.class, PlayerQuit::new);
+        registerMessage(ProxyMessageId.SERVER_SWITCH, ServerSwitch.class, ServerSwitch::new);
+        registerMessage(ProxyMessageId.UPDATE_VANISH_STATUS, UpdateVanishStatus.class, UpdateVanishStatus::new);
+        registerMessage(ProxyMessageId.UPDATE_BATCH, UpdateBatch.class, in -> new UpdateBatch(in, this));
     }
 
     @NotNull
@@ -63,40 +149,166 @@ public abstract class ProxySupport extends TabFeature implements JoinListener, Q
     }
 
     /**
-     * Processes incoming proxy message
+     * Processes incoming proxy message encoded as Base64 text. The message is decoded
+     * in one of decoding threads and then processed in the main thread.
      *
      * @param   msg
-     *          json message to process
-     */
-    public synchronized void processMessage(@NotNull String msg) {
-        ByteArrayDataInput in = ByteStreams.newDataInput(Base64.getDecoder().decode(msg));
-        String proxy = in.readUTF();
-        if (proxy.equals(this.proxy.toString())) return; // Message coming from current proxy
-        String action = in.readUTF();
-        Function<ByteArrayDataInput, ProxyMessage> function = stringToClass.get(action);
-        if (function == null) {
-            TAB.getInstance().getErrorManager().unknownProxyMessage(action);
-            return;
+     *          Base64 encoded message to process
+     */
+    public void processMessage(@NotNull String msg) {
+        long receiveTime = System.nanoTime();
+        queuedMessages.incrementAndGet();
+        getDecodeThread(msg.substring(0, Math.min(msg.length(), ORIGIN_PREFIX_CHARS)).hashCode()).execute(new TimedCaughtTask(TAB.getInstance().getCpu(),
+                () -> decodeAndQueue(() -> Base64.getDecoder().decode(msg), receiveTime), getFeatureName(), CpuUsageCategory.PROXY_MESSAGE_DECODE));
+    }
+
+    /**
+     * Processes incoming proxy message in either binary or legacy format. The message is decoded
+     * in one of decoding threads and then processed in the main thread.
+     *
+     * @param   bytes
+     *          Message to process
+     */
+    public void processMessage(byte[] bytes) {
+        long receiveTime = System.nanoTime();
+        queuedMessages.incrementAndGet();
+        int hash = 1;
+        for (int i = 0; i < Math.min(bytes.length, ORIGIN_PREFIX_BYTES); i++) {
+            hash = 31 * hash + bytes[i];
         }
+        getDecodeThread(hash).execute(new TimedCaughtTask(TAB.getInstance().getCpu(),
+                () -> decodeAndQueue(() -> bytes, receiveTime), getFeatureName(), CpuUsageCategory.PROXY_MESSAGE_DECODE));
+    }
+
+    /**
+     * Returns decoding thread for message with given origin hash. Messages coming from the same proxy
+     * always share their prefix and therefore always use the same thread, which keeps them in order.
+     *
+     * @param   originHash
+     *          Hash of message prefix
+     * @return  Thread for decoding the message
+     */
+    @NotNull
+    private ThreadExecutor getDecodeThread(int originHash) {
+        ThreadExecutor[] threads = TAB.getInstance().getCpu().getProxyMessageDecodeThreads();
+        return threads[Math.floorMod(originHash, threads.length)];
+    }
+
+    /**
+     * Decodes received message and queues it for processing in the main thread.
+     *
+     * @param   bytes
+     *          Supplier of received bytes
+     * @param   receiveTime
+     *          {@link System#nanoTime()} when the message was received
+     */
+    private void decodeAndQueue(@NotNull Supplier<byte[]> bytes, long receiveTime) {
         ProxyMessage proxyMessage;
         try {
-            proxyMessage = function.apply(in);
-            TAB.getInstance().debug("[Proxy Support] Decoded message " + proxyMessage);
+            proxyMessage = decode(bytes.get());
         } catch (Exception e) {
-            TAB.getInstance().getErrorManager().printError("Failed to decode proxy message \"" + new String(Base64.getDecoder().decode(msg)) + "\" ", e);
+            TAB.getInstance().getErrorManager().printError("Failed to decode proxy message", e);
+            proxyMessage = null;
+        }
+        decodedMessages.increment();
+        decodeLatency.add(System.nanoTime() - receiveTime);
+        if (proxyMessage == null) {
+            queuedMessages.decrementAndGet();
             return;
         }
 
         // Queue the task to make sure it does not execute before plugin fully loads, causing NPE
+        ProxyMessage decoded = proxyMessage;
         TAB.getInstance().getCpu().runMeasuredTask(getFeatureName(), CpuUsageCategory.PROXY_MESSAGE, () -> {
-            if (proxyMessage.getCustomThread() != null) {
-                proxyMessage.getCustomThread().execute(new TimedCaughtTask(TAB.getInstance().getCpu(), () -> proxyMessage.process(this), getFeatureName(), CpuUsageCategory.PROXY_MESSAGE));
-            } else {
-                proxyMessage.process(this);
+            queuedMessages.decrementAndGet();
+            processDecodedMessage(decoded);
+            if (decoded.getOrigin() != null && decoded.getSequence() >= 0) {
+                knownVersions.merge(decoded.getOrigin(), decoded.getSequence(), Math::max);
             }
         });
     }
 
+    /**
+     * Decodes message in either binary or legacy format.
+     *
+     * @param   bytes
+     *          Message to decode
+     * @return  Decoded message or {@code null} if it should be ignored
+     */
+    @Nullable
+    private ProxyMessage decode(byte[] bytes) {
+        if (bytes.length == 0) return null;
+        ByteArrayDataInput in = ByteStreams.newDataInput(bytes);
+        String action;
+        Function<ByteArrayDataInput, ProxyMessage> function;
+        UUID origin;
+        long sequence = -1;
+        if (bytes[0] == 0) {
+            String proxy = in.readUTF();
+            if (proxy.equals(this.proxy.toString())) return null; // Message coming from current proxy
+            origin = UUID.fromString(proxy);
+            action = in.readUTF();
+            function = stringToClass.get(action);
+        } else {
+            int version = in.readByte();
+            if (version != PROTOCOL_VERSION) {
+                TAB.getInstance().getErrorManager().unsupportedProxyProtocol(version);
+                return null;
+            }
+            // Both halves must be read before comparing to keep the input position correct
+            long mostSignificantBits = in.readLong();
+            long leastSignificantBits = in.readLong();
+            if (mostSignificantBits == proxy.getMostSignificantBits() && leastSignificantBits == proxy.getLeastSignificantBits()) {
+                return null; // Message coming from current proxy
+            }
+            origin = new UUID(mostSignificantBits, leastSignificantBits);
+            sequence = in.readLong();
+            int id = in.readUnsignedByte();
+            action = "#" + id;
+            function = idToClass.get(id);
+        }
+        if (function == null) {
+            TAB.getInstance().getErrorManager().unknownProxyMessage(action);
+            return null;
+        }
+        ProxyMessage proxyMessage;
+        try {
+            proxyMessage = function.apply(in);
+            proxyMessage.setOrigin(origin);
+            proxyMessage.setSequence(sequence);
+            TAB.getInstance().debug("[Proxy Support] Decoded message " + proxyMessage);
+        } catch (Exception e) {
+            TAB.getInstance().getErrorManager().printError("Failed to decode proxy message " + action + " \"" + Base64.getEncoder().encodeToString(bytes) + "\" ", e);
+            return null;
+        }
+        return proxyMessage;
+    }
+
+    /**
+     * Returns average time between receiving and decoding a message in milliseconds.
+     *
+     * @return  Average decode latency in milliseconds
+     */
+    public double getAverageDecodeLatency() {
+        long count = decodedMessages.sum();
+        if (count == 0) return 0;
+        return decodeLatency.sum() / (double) count / 1000000;
+    }
+
+    /**
+     * Processes decoded message in its custom thread if it has one, in current thread otherwise.
+     *
+     * @param   proxyMessage
+     *          Decoded message to process
+     */
+    public void processDecodedMessage(@NotNull ProxyMessage proxyMessage) {
+        if (proxyMessage.getCustomThread() != null) {
+            proxyMessage.getCustomThread().execute(new TimedCaughtTask(TAB.getInstance().getCpu(), () -> proxyMessage.process(this), getFeatureName(), CpuUsageCategory.PROXY_MESSAGE));
+        } else {
+            proxyMessage.process(this);
+        }
+    }
+
     /**
      * Sends message to all proxies
      *
@@ -105,6 +317,18 @@ public abstract class ProxySupport extends TabFeature implements JoinListener, Q
      */
     public abstract void sendMessage(@NotNull String message);
 
+    /**
+     * Sends encoded message to all proxies. By default, the message is sent as Base64 text,
+     * implementations with a broker supporting binary payloads should override this
+     * and pass received bytes to {@link #processMessage(byte[])}.
+     *
+     * @param   message
+     *          Encoded message to send
+     */
+    public void sendMessage(byte[] message) {
+        sendMessage(Base64.getEncoder().encodeToString(message));
+    }
+
     /**
      * Registers event and proxy message listeners
      */
@@ -120,8 +344,194 @@ public abstract class ProxySupport extends TabFeature implements JoinListener, Q
         register();
         overridePlaceholders();
         TAB.getInstance().getEventBus().register(TabPlaceholderRegisterEvent.class, eventHandler);
+        restoreState();
         for (TabPlayer p : TAB.getInstance().getOnlinePlayers()) onJoin(p);
-        sendMessage(new LoadRequest());
+        sendMessage(new LoadRequest(new HashMap<>(knownVersions)));
+        TAB.getInstance().getCpu().getProcessingThread().repeatTask(new TimedCaughtTask(TAB.getInstance().getCpu(),
+                this::flushUpdates, getFeatureName(), CpuUsageCategory.PROXY_UPDATE_FLUSH), UPDATE_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Forgets state retained from previous instance before plugin reload. This should be called
+     * on plugin load if proxy support is not enabled anymore to not keep old instances in memory.
+     */
+    public static void discardRetainedState() {
+        retainedState = null;
+    }
+
+    /**
+     * Restores state retained from previous instance before plugin reload. State is only restored
+     * if the same message types are registered, otherwise some of the data might be missing and
+     * the journal may contain messages which can no longer be encoded. In such case, state version
+     * is increased without remembering any changes, so all proxies get a complete snapshot.
+     * Players of proxies which do not answer the load request in time are removed, as their quit
+     * may have been missed.
+     */
+    private void restoreState() {
+        RetainedState retained = retainedState;
+        retainedState = null;
+        if (retained == null || legacyProtocol) return;
+        if (!retained.messageIds.equals(idToClass.keySet())) {
+            synchronized (pendingUpdates) {
+                stateVersion = retained.stateVersion + 1;
+            }
+            return;
+        }
+        synchronized (pendingUpdates) {
+            stateVersion = retained.stateVersion;
+            journal.addAll(retained.journal);
+        }
+        knownVersions.putAll(retained.knownVersions);
+        for (ProxyPlayer player : retained.players) {
+            addProxyPlayer(player);
+            if (TAB.getInstance().getPlayer(player.getUniqueId()) == null) {
+                TAB.getInstance().getFeatureManager().onJoin(player);
+            }
+        }
+        TAB.getInstance().getCpu().getProcessingThread().executeLater(new TimedCaughtTask(TAB.getInstance().getCpu(), () -> {
+            for (ProxyPlayer player : proxyPlayers.values()) {
+                if (player.getOrigin() != null && !respondedProxies.contains(player.getOrigin())) {
+                    removeProxyPlayer(player);
+                }
+            }
+        }, getFeatureName(), CpuUsageCategory.PROXY_MESSAGE), LOAD_RESPONSE_TIMEOUT);
+    }
+
+    /**
+     * Answers load request of another proxy. If the proxy knows an older state of this proxy
+     * and all changes since then are still remembered, only those changes are sent. Otherwise,
+     * a complete snapshot is sent in chunks and all features resend data of all players.
+     *
+     * @param   requester
+     *          Proxy which sent the request, {@code null} if unknown
+     * @param   knownVersion
+     *          State version of this proxy known by the requesting proxy, {@code null} if none
+     */
+    public void answerLoadRequest(@Nullable UUID requester, @Nullable Long knownVersion) {
+        synchronized (pendingUpdates) {
+            flushUpdates();
+            if (requester != null && knownVersion != null) {
+                List<ProxyMessage> changes = getChangesSince(knownVersion);
+                if (changes != null) {
+                    TAB.getInstance().debug("[Proxy Support] Sending " + changes.size() + " state changes since version " + knownVersion + " to proxy " + requester);
+                    encodeAndSend(new LoadDelta(this, requester, changes));
+                    return;
+                }
+            }
+            TabPlayer[] players = TAB.getInstance().getOnlinePlayers();
+            int chunkCount = Math.max(1, (players.length + LOAD_CHUNK_SIZE - 1) / LOAD_CHUNK_SIZE);
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                List<PlayerJoin> joins = new ArrayList<>();
+                for (int i = chunk * LOAD_CHUNK_SIZE; i < Math.min(players.length, (chunk + 1) * LOAD_CHUNK_SIZE); i++) {
+                    joins.add(new PlayerJoin(players[i]));
+                }
+                encodeAndSend(new Load(requester, chunk, chunkCount, joins));
+            }
+        }
+        TAB.getInstance().getFeatureManager().onProxyLoadRequest();
+    }
+
+    /**
+     * Returns all remembered state changes since given version in order, or {@code null}
+     * if some of them are no longer remembered or the version is unknown.
+     *
+     * @param   version
+     *          Known state version
+     * @return  State changes since given version or {@code null} if not available
+     */
+    @Nullable
+    private List<ProxyMessage> getChangesSince(long version) {
+        if (version > stateVersion) return null; // Version of another proxy run with the same id
+        if (version < stateVersion && (journal.isEmpty() || journal.getFirst().getSequence() > version + 1)) return null;
+        List<ProxyMessage> changes = new ArrayList<>();
+        for (ProxyMessage change : journal) {
+            if (change.getSequence() > version) changes.add(change);
+        }
+        return changes;
+    }
+
+    /**
+     * Processes received chunk of snapshot requested by this proxy. Once the last chunk
+     * is received, players of the sending proxy which were not in the snapshot are removed.
+     *
+     * @param   origin
+     *          Proxy which sent the snapshot
+     * @param   chunk
+     *          Index of received chunk
+     * @param   chunkCount
+     *          Total amount of chunks in the snapshot
+     * @param   players
+     *          Players in received chunk
+     */
+    public void onSnapshotChunk(@NotNull UUID origin, int chunk, int chunkCount, @NotNull List<PlayerJoin> players) {
+        respondedProxies.add(origin);
+        if (chunk == 0) snapshotPlayers.put(origin, new HashSet<>());
+        Set<UUID> received = snapshotPlayers.get(origin);
+        if (received == null) return; // First chunk was missed
+        for (PlayerJoin join : players) {
+            received.add(join.getUniqueId());
+        }
+        if (chunk < chunkCount - 1) return;
+        snapshotPlayers.remove(origin);
+        for (ProxyPlayer player : proxyPlayers.values()) {
+            if (origin.equals(player.getOrigin()) && !received.contains(player.getUniqueId())) {
+                removeProxyPlayer(player);
+            }
+        }
+    }
+
+    /**
+     * Adds player of another proxy which connected.
+     *
+     * @param   player
+     *          Player to add
+     */
+    public void addProxyPlayer(@NotNull ProxyPlayer player) {
+        proxyPlayers.put(player.getUniqueId(), player);
+        proxyPlayerIndex.add(player, player.server, null);
+    }
+
+    /**
+     * Removes player of another proxy which is no longer connected.
+     *
+     * @param   player
+     *          Player to remove
+     */
+    public void removeProxyPlayer(@NotNull ProxyPlayer player) {
+        TAB.getInstance().getFeatureManager().onQuit(player);
+        proxyPlayers.remove(player.getUniqueId());
+        proxyPlayerIndex.remove(player, player.server, null);
+    }
+
+    /**
+     * Moves player of another proxy to a new server.
+     *
+     * @param   player
+     *          Player who switched server
+     * @param   server
+     *          New server
+     */
+    public void setServer(@NotNull ProxyPlayer player, @NotNull Server server) {
+        proxyPlayerIndex.move(player, player.server, null, server, null);
+        player.setServer(server);
+    }
+
+    /**
+     * Returns amount of players on given server across all proxies who are not vanished.
+     *
+     * @param   server
+     *          Server to count players of
+     * @return  Amount of non-vanished players on given server
+     */
+    public int countVisiblePlayers(@NotNull Server server) {
+        int count = 0;
+        for (TabPlayer player : TAB.getInstance().getPlayerIndex().getPlayers(server)) {
+            if (!player.isVanished()) count++;
+        }
+        for (ProxyPlayer player : proxyPlayerIndex.getPlayers(server)) {
+            if (!player.isVanished()) count++;
+        }
+        return count;
     }
 
     private void overridePlaceholders() {
@@ -130,16 +540,7 @@ public abstract class ProxySupport extends TabFeature implements JoinListener, Q
             if (identifier.startsWith("%online_")) {
                 String serverName = identifier.substring(8, identifier.length()-1);
                 Server server = Server.byName(serverName);
-                event.setServerPlaceholder(() -> {
-                    int count = 0;
-                    for (TabPlayer player : TAB.getInstance().getOnlinePlayers()) {
-                        if (player.server == server && !player.isVanished()) count++;
-                    }
-                    for (ProxyPlayer player : proxyPlayers.values()) {
-                        if (player.server == server && !player.isVanished()) count++;
-                    }
-                    return PerformanceUtil.toString(count);
-                });
+                event.setServerPlaceholder(() -> PerformanceUtil.toString(countVisiblePlayers(server)));
             }
         };
         TAB.getInstance().getPlaceholderManager().registerInternalServerPlaceholder(TabConstants.Placeholder.ONLINE, 1000, () -> {
@@ -162,23 +563,22 @@ public abstract class ProxySupport extends TabFeature implements JoinListener, Q
             }
             return PerformanceUtil.toString(count);
         });
-        TAB.getInstance().getPlaceholderManager().registerInternalPlayerPlaceholder(TabConstants.Placeholder.SERVER_ONLINE, 1000, p -> {
-            int count = 0;
-            for (TabPlayer player : TAB.getInstance().getOnlinePlayers()) {
-                if (((TabPlayer)p).server == player.server && !player.isVanished()) count++;
-            }
-            for (ProxyPlayer player : proxyPlayers.values()) {
-                if (((TabPlayer)p).server == player.server && !player.isVanished()) count++;
-            }
-            return PerformanceUtil.toString(count);
-        });
+        TAB.getInstance().getPlaceholderManager().registerInternalPlayerPlaceholder(TabConstants.Placeholder.SERVER_ONLINE, 1000,
+                p -> PerformanceUtil.toString(countVisiblePlayers(((TabPlayer) p).server)));
     }
 
     @Override
     public void unload() {
         for (TabPlayer p : TAB.getInstance().getOnlinePlayers()) onQuit(p);
+        flushUpdates();
         TAB.getInstance().getEventBus().unregister(eventHandler);
         unregister();
+        if (!legacyProtocol) {
+            synchronized (pendingUpdates) {
+                retainedState = new RetainedState(proxy, stateVersion, new ArrayList<>(journal), new ArrayList<>(proxyPlayers.values()),
+                        new HashMap<>(knownVersions), new HashSet<>(idToClass.keySet()));
+            }
+        }
     }
 
     @Override
@@ -197,35 +597,190 @@ public abstract class ProxySupport extends TabFeature implements JoinListener, Q
     }
 
     /**
-     * Sends message to other proxies.
+     * Sends message to other proxies. Player state updates are collected and sent together
+     * in the next flush, keeping only the latest update per player and message type. Other
+     * messages are sent immediately, after sending all collected updates to preserve order.
      *
      * @param   message
      *          Message to send
      */
     public void sendMessage(@NotNull ProxyMessage message) {
+        UUID updatedPlayer = message.getUpdatedPlayer();
+        synchronized (pendingUpdates) {
+            if (updatedPlayer != null && !legacyProtocol) {
+                pendingUpdates.put(new UpdateKey(message.getClass(), updatedPlayer), message);
+                return;
+            }
+            flushUpdates();
+            encodeAndSend(message);
+        }
+    }
+
+    /**
+     * Sends all collected player updates as a single message.
+     */
+    public void flushUpdates() {
+        synchronized (pendingUpdates) {
+            if (pendingUpdates.isEmpty()) return;
+            List<ProxyMessage> updates = new ArrayList<>(pendingUpdates.values());
+            pendingUpdates.clear();
+            encodeAndSend(updates.size() == 1 ? updates.get(0) : new UpdateBatch(this, updates));
+        }
+    }
+
+    /**
+     * Encodes message and sends it to other proxies.
+     *
+     * @param   message
+     *          Message to send
+     */
+    private void encodeAndSend(@NotNull ProxyMessage message) {
+        if (message.isStateChange()) {
+            message.setSequence(++stateVersion);
+            journal.addLast(message);
+            if (journal.size() > JOURNAL_SIZE) journal.removeFirst();
+        } else {
+            message.setSequence(stateVersion);
+        }
         ByteArrayDataOutput out = ByteStreams.newDataOutput();
-        out.writeUTF(proxy.toString());
-        out.writeUTF(classToString.get(message.getClass()));
         TAB.getInstance().debug("[Proxy Support] Encoding message " + message);
-        message.write(out);
-        sendMessage(Base64.getEncoder().encodeToString(out.toByteArray()));
+        if (legacyProtocol) {
+            out.writeUTF(proxy.toString());
+            out.writeUTF(classToString.get(message.getClass()));
+            message.writeLegacy(out);
+        } else {
+            out.writeByte(PROTOCOL_VERSION);
+            out.writeLong(proxy.getMostSignificantBits());
+            out.writeLong(proxy.getLeastSignificantBits());
+            out.writeLong(message.getSequence());
+            out.writeByte(classToId.get(message.getClass()));
+            message.write(out);
+        }
+        sendMessage(out.toByteArray());
     }
 
     /**
      * Registers proxy message.
      *
+     * @param   id
+     *          Numeric id of the message from {@link ProxyMessageId}
+     * @param   clazz
+     *          Message class
+     * @param   function
+     *          Message function
+     */
+    public void registerMessage(int id, @NotNull Class<? extends ProxyMessage> clazz, @NotNull Function<ByteArrayDataInput, ProxyMessage> function) {
+        registerMessage(id, clazz, function, function);
+    }
+
+    /**
+     * Registers proxy message with different content in legacy format.
+     *
+     * @param   id
+     *          Numeric id of the message from {@link ProxyMessageId}
      * @param   clazz
      *          Message class
      * @param   function
      *          Message function
+     * @param   legacyFunction
+     *          Message function for legacy format
      */
-    public void registerMessage(@NotNull Class<? extends ProxyMessage> clazz, @NotNull Function<ByteArrayDataInput, ProxyMessage> function) {
-        stringToClass.put(clazz.getSimpleName(), function);
+    public void registerMessage(int id, @NotNull Class<? extends ProxyMessage> clazz, @NotNull Function<ByteArrayDataInput, ProxyMessage> function,
+                                @NotNull Function<ByteArrayDataInput, ProxyMessage> legacyFunction) {
+        stringToClass.put(clazz.getSimpleName(), legacyFunction);
         classToString.put(clazz, clazz.getSimpleName());
+        idToClass.put(id, function);
+        classToId.put(clazz, id);
     }
 
     @Override
     public void onVanishStatusChange(@NotNull TabPlayer player) {
         sendMessage(new UpdateVanishStatus(player.getTablistId(), player.isVanished()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes messages with their ids and lengths, so messages of features
+     * disabled on the receiving proxy can be skipped.
+     *
+     * @param   out
+     *          Output to write to
+     * @param   messages
+     *          Messages to write
+     */
+    public void writeMessages(@NotNull ByteArrayDataOutput out, @NotNull List<ProxyMessage> messages) {
+        out.writeInt(messages.size());
+        for (ProxyMessage message : messages) {
+            ByteArrayDataOutput data = ByteStreams.newDataOutput();
+            message.write(data);
+            byte[] bytes = data.toByteArray();
+            out.writeByte(classToId.get(message.getClass()));
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads messages written using {@link #writeMessages(ByteArrayDataOutput, List)},
+     * skipping messages of unknown types.
+     *
+     * @param   in
+     *          Input to read from
+     * @return  Decoded messages
+     */
+    @NotNull
+    public List<ProxyMessage> readMessages(@NotNull ByteArrayDataInput in) {
+        int count = in.readInt();
+        List<ProxyMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = in.readUnsignedByte();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            Function<ByteArrayDataInput, ProxyMessage> function = idToClass.get(id);
+            if (function == null) {
+                TAB.getInstance().getErrorManager().unknownProxyMessage("#" + id);
+                continue;
+            }
+            messages.add(function.apply(ByteStreams.newDataInput(data)));
+        }
+        return messages;
+    }
+
+    /**
+     * Key identifying a player update for keeping only the latest one.
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static class UpdateKey {
+
+        /** Message type */
+        @NotNull private final Class<? extends ProxyMessage> type;
+
+        /** Updated player */
+        @NotNull private final UUID player;
+    }
+
+    /**
+     * State of the feature kept over plugin reload.
+     */
+    @AllArgsConstructor
+    private static class RetainedState {
+
+        /** UUID of this proxy */
+        @NotNull private final UUID proxy;
+
+        /** State version of this proxy */
+        private final long stateVersion;
+
+        /** Recently sent state changes */
+        @NotNull private final List<ProxyMessage> journal;
+
+        /** Players connected to other proxies */
+        @NotNull private final List<ProxyPlayer> players;
+
+        /** Known state versions of other proxies */
+        @NotNull private final Map<UUID, Long> knownVersions;
+
+        /** Ids of registered message types */
+        @NotNull private final Set<Integer> messageIds;
+    }
+}
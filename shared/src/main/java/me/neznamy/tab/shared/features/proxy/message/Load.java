@@ -2,50 +2,87 @@ package me.neznamy.tab.shared.features.proxy.message;
 
 import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
+import lombok.AllArgsConstructor;
 import lombok.ToString;
 import me.neznamy.tab.shared.features.proxy.ProxySupport;
-import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 /**
- * Message sent by another proxy to load multiple players.
+ * Message sent by another proxy to load multiple players. Large snapshots
+ * are split into multiple chunks, each sent as a separate message.
  */
+@AllArgsConstructor
 @ToString
 public class Load extends ProxyMessage {
 
+    /** Proxy which requested the snapshot, {@code null} if sent to all proxies */
+    @Nullable private final UUID target;
+
+    /** Index of this chunk in the snapshot */
+    private final int chunk;
+
+    /** Total amount of chunks in the snapshot */
+    private final int chunkCount;
+
     @NotNull private final List<PlayerJoin> decodedPlayers;
 
     /**
-     * Creates new instance from given players.
+     * Creates new instance and reads data from byte input.
      *
-     * @param   players
-     *          Players to encode
+     * @param   in
+     *          Input stream to read from
      */
-    public Load(@NotNull TabPlayer[] players) {
-        decodedPlayers = Arrays.stream(players).map(PlayerJoin::new).collect(Collectors.toList());
+    public Load(@NotNull ByteArrayDataInput in) {
+        target = in.readBoolean() ? readUUID(in) : null;
+        chunk = in.readInt();
+        chunkCount = in.readInt();
+        decodedPlayers = readPlayers(in);
     }
 
     /**
-     * Creates new instance and reads data from byte input.
+     * Reads message sent by a proxy running an older version, which is a complete
+     * snapshot sent to all proxies.
      *
      * @param   in
      *          Input stream to read from
+     * @return  Decoded message
      */
-    public Load(@NotNull ByteArrayDataInput in) {
-        decodedPlayers = new ArrayList<>();
+    @NotNull
+    public static Load fromLegacy(@NotNull ByteArrayDataInput in) {
+        return new Load(null, 0, 1, readPlayers(in));
+    }
+
+    @NotNull
+    private static List<PlayerJoin> readPlayers(@NotNull ByteArrayDataInput in) {
         int count = in.readInt();
+        List<PlayerJoin> players = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
-            decodedPlayers.add(new PlayerJoin(in));
+            players.add(new PlayerJoin(in));
         }
+        return players;
+    }
+
+    @Override
+    public boolean isStateChange() {
+        return false;
     }
 
     @Override
     public void write(@NotNull ByteArrayDataOutput out) {
+        out.writeBoolean(target != null);
+        if (target != null) writeUUID(out, target);
+        out.writeInt(chunk);
+        out.writeInt(chunkCount);
+        writeLegacy(out);
+    }
+
+    @Override
+    public void writeLegacy(@NotNull ByteArrayDataOutput out) {
         out.writeInt(decodedPlayers.size());
         for (PlayerJoin player : decodedPlayers) {
             player.write(out);
@@ -54,8 +91,13 @@ public class Load extends ProxyMessage {
 
     @Override
     public void process(@NotNull ProxySupport proxySupport) {
+        if (target != null && !target.equals(proxySupport.getProxy())) return; // Snapshot requested by another proxy
         for (PlayerJoin join : decodedPlayers) {
+            join.setOrigin(getOrigin());
             join.process(proxySupport);
         }
+        if (target != null && getOrigin() != null) {
+            proxySupport.onSnapshotChunk(getOrigin(), chunk, chunkCount, decodedPlayers);
+        }
     }
 }
@@ -0,0 +1,66 @@
+package me.neznamy.tab.shared.features.proxy.message;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import me.neznamy.tab.shared.features.proxy.ProxySupport;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Message sent by another proxy as an answer to {@link LoadRequest} instead of
+ * a complete snapshot when the requesting proxy already knows an older state
+ * of the sender. It contains all state changes since that state in original order.
+ */
+@AllArgsConstructor
+@ToString
+@SuppressWarnings("UnstableApiUsage")
+public class LoadDelta extends ProxyMessage {
+
+    @ToString.Exclude
+    @NotNull private final ProxySupport proxySupport;
+
+    /** Proxy which requested the changes */
+    @NotNull private final UUID target;
+
+    /** State changes since version known by the requesting proxy */
+    @NotNull private final List<ProxyMessage> changes;
+
+    /**
+     * Creates new instance and reads data from byte input.
+     *
+     * @param   in
+     *          Input stream to read from
+     * @param   proxySupport
+     *          Proxy support feature to decode contained changes with
+     */
+    public LoadDelta(@NotNull ByteArrayDataInput in, @NotNull ProxySupport proxySupport) {
+        this.proxySupport = proxySupport;
+        target = readUUID(in);
+        changes = proxySupport.readMessages(in);
+    }
+
+    @Override
+    public boolean isStateChange() {
+        return false;
+    }
+
+    @Override
+    public void write(@NotNull ByteArrayDataOutput out) {
+        writeUUID(out, target);
+        proxySupport.writeMessages(out, changes);
+    }
+
+    @Override
+    public void process(@NotNull ProxySupport proxySupport) {
+        if (!target.equals(proxySupport.getProxy())) return; // Changes requested by another proxy
+        for (ProxyMessage change : changes) {
+            change.setOrigin(getOrigin());
+            proxySupport.processDecodedMessage(change);
+        }
+        if (getOrigin() != null) proxySupport.getRespondedProxies().add(getOrigin());
+    }
+}
@@ -1,25 +1,63 @@
 package me.neznamy.tab.shared.features.proxy.message;
 
+import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
+import lombok.AllArgsConstructor;
 import lombok.ToString;
-import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.features.proxy.ProxySupport;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
 /**
  * Message sent by another server to request loading of all players connected to this server.
+ * The message contains state versions of other proxies the sender already knows, allowing
+ * them to only send changes since then instead of a complete snapshot.
  */
+@AllArgsConstructor
 @ToString
 public class LoadRequest extends ProxyMessage {
 
+    /** Last known state versions of other proxies by their UUID */
+    @NotNull private final Map<UUID, Long> knownVersions;
+
+    /**
+     * Creates new instance and reads data from byte input.
+     *
+     * @param   in
+     *          Input stream to read from
+     */
+    public LoadRequest(@NotNull ByteArrayDataInput in) {
+        int count = in.readInt();
+        knownVersions = new HashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            knownVersions.put(readUUID(in), in.readLong());
+        }
+    }
+
+    @Override
+    public boolean isStateChange() {
+        return false;
+    }
+
     @Override
     public void write(@NotNull ByteArrayDataOutput out) {
-        // Nothing to write anymore
+        out.writeInt(knownVersions.size());
+        for (Map.Entry<UUID, Long> entry : knownVersions.entrySet()) {
+            writeUUID(out, entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    @Override
+    public void writeLegacy(@NotNull ByteArrayDataOutput out) {
+        // Nothing to write in legacy format
     }
 
     @Override
     public void process(@NotNull ProxySupport proxySupport) {
-        proxySupport.sendMessage(new Load(TAB.getInstance().getOnlinePlayers()));
-        TAB.getInstance().getFeatureManager().onProxyLoadRequest();
+        proxySupport.answerLoadRequest(getOrigin(), knownVersions.get(proxySupport.getProxy()));
     }
 }
@@ -2,6 +2,7 @@ package me.neznamy.tab.shared.features.proxy.message;
 
 import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
+import lombok.Getter;
 import lombok.ToString;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants;
@@ -14,6 +15,7 @@ import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -22,7 +24,7 @@ import java.util.UUID;
 @ToString
 public class PlayerJoin extends ProxyMessage {
 
-    @NotNull private final UUID uniqueId;
+    @Getter @NotNull private final UUID uniqueId;
     @NotNull private final UUID tablistId;
     @NotNull private final String name;
     @NotNull private final Server server;
@@ -75,12 +77,20 @@ public class PlayerJoin extends ProxyMessage {
 
     @Override
     public void process(@NotNull ProxySupport proxySupport) {
-        ProxyPlayer decodedPlayer = new ProxyPlayer(uniqueId, tablistId, name, server, vanished, staff, skin);
-        if (proxySupport.getProxyPlayers().containsKey(decodedPlayer.getUniqueId())) {
-            TAB.getInstance().debug("[Proxy Support] The proxy player " + decodedPlayer.getName() + " is already connected, cannot process join.");
-            return;
+        ProxyPlayer existing = proxySupport.getProxyPlayers().get(uniqueId);
+        if (existing != null) {
+            if (existing.getTablistId().equals(tablistId) && existing.getName().equals(name) &&
+                    existing.isStaff() == staff && Objects.equals(existing.getSkin(), skin)) {
+                update(proxySupport, existing);
+                return;
+            }
+            // Immutable data changed, add the player again
+            TAB.getInstance().debug("[Proxy Support] The proxy player " + name + " is already connected with different data, replacing.");
+            proxySupport.removeProxyPlayer(existing);
         }
-        proxySupport.getProxyPlayers().put(decodedPlayer.getUniqueId(), decodedPlayer);
+        ProxyPlayer decodedPlayer = new ProxyPlayer(uniqueId, tablistId, name, server, vanished, staff, skin);
+        decodedPlayer.setOrigin(getOrigin());
+        proxySupport.addProxyPlayer(decodedPlayer);
         QueuedData data = proxySupport.getQueuedData().remove(decodedPlayer.getUniqueId());
         if (data != null) {
             decodedPlayer.setBelowNameNumber(data.getBelowNameNumber());
@@ -98,4 +108,25 @@ public class PlayerJoin extends ProxyMessage {
             TAB.getInstance().getFeatureManager().onJoin(decodedPlayer);
         }
     }
+
+    /**
+     * Updates already known player with data from this message, which happens when
+     * the join is part of a snapshot of a proxy whose players were retained.
+     *
+     * @param   proxySupport
+     *          Proxy support feature
+     * @param   player
+     *          Already known player
+     */
+    private void update(@NotNull ProxySupport proxySupport, @NotNull ProxyPlayer player) {
+        if (getOrigin() != null) player.setOrigin(getOrigin());
+        if (player.server != server) {
+            proxySupport.setServer(player, server);
+            TAB.getInstance().getFeatureManager().onServerSwitch(player);
+        }
+        if (player.isVanished() != vanished) {
+            player.setVanished(vanished);
+            TAB.getInstance().getFeatureManager().onVanishStatusChange(player);
+        }
+    }
 }
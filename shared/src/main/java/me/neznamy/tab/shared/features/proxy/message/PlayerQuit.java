@@ -4,7 +4,6 @@ import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
 import lombok.AllArgsConstructor;
 import lombok.ToString;
-import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.features.proxy.ProxyPlayer;
 import me.neznamy.tab.shared.features.proxy.ProxySupport;
 import org.jetbrains.annotations.NotNull;
@@ -44,7 +43,6 @@ public class PlayerQuit extends ProxyMessage {
             proxySupport.getQueuedData().remove(playerId);
             return;
         }
-        TAB.getInstance().getFeatureManager().onQuit(target);
-        proxySupport.getProxyPlayers().remove(target.getUniqueId());
+        proxySupport.removeProxyPlayer(target);
     }
 }
@@ -2,6 +2,8 @@ package me.neznamy.tab.shared.features.proxy.message;
 
 import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
+import lombok.Getter;
+import lombok.Setter;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.cpu.ThreadExecutor;
 import me.neznamy.tab.shared.features.proxy.ProxySupport;
@@ -11,13 +13,48 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
 
+@Getter
+@Setter
 public abstract class ProxyMessage {
 
+    /** Proxy which sent this message, {@code null} if it was created by this proxy */
+    @Nullable
+    private UUID origin;
+
+    /**
+     * State version of sending proxy when this message was sent, {@code -1} if unknown.
+     * For state changes this is the version the change created.
+     */
+    private long sequence = -1;
+
     @Nullable
     public ThreadExecutor getCustomThread() {
         return null;
     }
 
+    /**
+     * Returns player whose state this message carries. Messages returning a player are
+     * full state updates, which allows sending only the latest one per player in each
+     * flush interval. Messages returning {@code null} are sent immediately.
+     *
+     * @return  Player whose state this message updates or {@code null} if not a state update
+     */
+    @Nullable
+    public UUID getUpdatedPlayer() {
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if this message changes state of players on sending proxy
+     * and should therefore increase its state version and be kept for sending
+     * to proxies asking for changes since a known version.
+     *
+     * @return  {@code true} if this message changes state, {@code false} if not
+     */
+    public boolean isStateChange() {
+        return true;
+    }
+
     public void writeUUID(@NotNull ByteArrayDataOutput out, @NotNull UUID id) {
         out.writeLong(id.getMostSignificantBits());
         out.writeLong(id.getLeastSignificantBits());
@@ -51,6 +88,17 @@ public abstract class ProxyMessage {
 
     public abstract void write(@NotNull ByteArrayDataOutput out);
 
+    /**
+     * Writes message content in format understood by proxies running older versions.
+     * By default, the content is the same as in {@link #write(ByteArrayDataOutput)}.
+     *
+     * @param   out
+     *          Output to write to
+     */
+    public void writeLegacy(@NotNull ByteArrayDataOutput out) {
+        write(out);
+    }
+
     public abstract void process(@NotNull ProxySupport proxySupport);
 
     public void unknownPlayer(@NotNull String playerId, @NotNull String action) {
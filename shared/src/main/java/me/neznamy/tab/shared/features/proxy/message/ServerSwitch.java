@@ -49,7 +49,7 @@ public class ServerSwitch extends ProxyMessage {
             data.setServer(newServer);
             return;
         }
-        target.setServer(newServer);
+        proxySupport.setServer(target, newServer);
         TAB.getInstance().getFeatureManager().onServerSwitch(target);
     }
 }
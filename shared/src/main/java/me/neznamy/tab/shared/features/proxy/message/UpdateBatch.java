@@ -0,0 +1,51 @@
+package me.neznamy.tab.shared.features.proxy.message;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import me.neznamy.tab.shared.features.proxy.ProxySupport;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Message containing player updates collected over one flush interval.
+ * Each update is written with its message id and length, so updates of
+ * features disabled on the receiving proxy can be skipped.
+ */
+@AllArgsConstructor
+@ToString
+@SuppressWarnings("UnstableApiUsage")
+public class UpdateBatch extends ProxyMessage {
+
+    @ToString.Exclude
+    @NotNull private final ProxySupport proxySupport;
+    @NotNull private final List<ProxyMessage> updates;
+
+    /**
+     * Creates new instance and reads data from byte input.
+     *
+     * @param   in
+     *          Input stream to read from
+     * @param   proxySupport
+     *          Proxy support feature to decode contained updates with
+     */
+    public UpdateBatch(@NotNull ByteArrayDataInput in, @NotNull ProxySupport proxySupport) {
+        this.proxySupport = proxySupport;
+        updates = proxySupport.readMessages(in);
+    }
+
+    @Override
+    public void write(@NotNull ByteArrayDataOutput out) {
+        proxySupport.writeMessages(out, updates);
+    }
+
+    @Override
+    public void process(@NotNull ProxySupport proxySupport) {
+        for (ProxyMessage update : updates) {
+            update.setOrigin(getOrigin());
+            proxySupport.processDecodedMessage(update);
+        }
+    }
+}
@@ -8,12 +8,19 @@ import me.neznamy.tab.shared.platform.TabPlayer;
 import me.neznamy.tab.shared.util.ReflectionUtils;
 import net.luckperms.api.LuckPermsProvider;
 import net.luckperms.api.cacheddata.CachedMetaData;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.context.ContextUpdateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.query.QueryOptions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -38,6 +45,50 @@ public class LuckPermsHook {
         return p.luckPermsUser.getPrimaryGroup();
     };
 
+    /** Active subscriptions to LuckPerms events */
+    private final List<EventSubscription<?>> subscriptions = new ArrayList<>();
+
+    /**
+     * Subscribes to LuckPerms events notifying about changes of player's data or contexts
+     * and calls given function with affected player. While subscribed, query options of
+     * players are cached, as they are invalidated on these events.
+     *
+     * @param   onChange
+     *          Function to call with player whose data or contexts changed
+     */
+    public synchronized void subscribe(@NonNull Consumer<TabPlayer> onChange) {
+        EventBus eventBus = LuckPermsProvider.get().getEventBus();
+        subscriptions.add(eventBus.subscribe(UserDataRecalculateEvent.class, event -> {
+            TabPlayer player = TAB.getInstance().getPlayer(event.getUser().getUniqueId());
+            if (player == null) return;
+            player.luckPermsUser = event.getUser();
+            player.luckPermsQueryOptions = null;
+            onChange.accept(player);
+        }));
+        subscriptions.add(eventBus.subscribe(ContextUpdateEvent.class, event -> {
+            for (TabPlayer player : TAB.getInstance().getOnlinePlayers()) {
+                if (player.getPlayer() == event.getSubject()) {
+                    player.luckPermsQueryOptions = null;
+                    onChange.accept(player);
+                    return;
+                }
+            }
+        }));
+    }
+
+    /**
+     * Closes all subscriptions to LuckPerms events.
+     */
+    public synchronized void unsubscribe() {
+        for (EventSubscription<?> subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions.clear();
+        for (TabPlayer player : TAB.getInstance().getOnlinePlayers()) {
+            player.luckPermsQueryOptions = null;
+        }
+    }
+
     /**
      * Returns player's prefix configured in LuckPerms
      *
@@ -103,8 +154,13 @@ public class LuckPermsHook {
     private CachedMetaData getCachedMetaData(@NonNull TabPlayer p) {
         if (p.luckPermsUser == null) p.luckPermsUser = LuckPermsProvider.get().getUserManager().getUser(p.getUniqueId());
         if (p.luckPermsUser == null) return null;
-        Optional<QueryOptions> options = LuckPermsProvider.get().getContextManager().getQueryOptions(p.luckPermsUser);
-        return options.map(queryOptions -> p.luckPermsUser.getCachedData().getMetaData(queryOptions)).orElse(null);
+        QueryOptions options = p.luckPermsQueryOptions;
+        if (options == null) {
+            options = LuckPermsProvider.get().getContextManager().getQueryOptions(p.luckPermsUser).orElse(null);
+            if (options == null) return null;
+            if (!subscriptions.isEmpty()) p.luckPermsQueryOptions = options; // Only cache if it will be invalidated
+        }
+        return p.luckPermsUser.getCachedData().getMetaData(options);
     }
 
     /**
@@ -0,0 +1,156 @@
+package me.neznamy.tab.shared.placeholders;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of placeholder value changes detected in a refresh loop.
+ * Changes are stored as indexes into the list of refreshed placeholders and
+ * array of online players instead of maps to avoid allocating new collections
+ * on every refresh. Only values which actually changed are recorded.
+ */
+public class PlaceholderChangeBuffer {
+
+    /**
+     * Target index marking a placeholder value containing nested placeholders which could not
+     * be resolved yet, it was not saved and must be fully processed in the main thread
+     */
+    public static final int UNRESOLVED = -2;
+
+    /** Initial capacity of the buffer */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Amount of recorded changes */
+    @Getter
+    private int size;
+
+    /** Indexes of placeholders which changed value */
+    private int[] placeholders = new int[INITIAL_CAPACITY];
+
+    /** Indexes of players (or viewers for relational placeholders) the value changed for, {@code -1} for server placeholders */
+    private int[] players = new int[INITIAL_CAPACITY];
+
+    /** Indexes of targets the value changed for, {@code -1} if placeholder is not relational, {@link #UNRESOLVED} if value was not saved */
+    private int[] targets = new int[INITIAL_CAPACITY];
+
+    /** Values returned by the placeholders */
+    private String[] values = new String[INITIAL_CAPACITY];
+
+    /** Time it took placeholders to retrieve value (in nanoseconds), indexed by placeholder index */
+    private long[] usedTime = new long[0];
+
+    /**
+     * Clears all recorded changes and prepares the buffer for a refresh loop
+     * with given amount of placeholders.
+     *
+     * @param   placeholderCount
+     *          Amount of placeholders refreshed in the loop
+     */
+    public void reset(int placeholderCount) {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        if (usedTime.length < placeholderCount) {
+            usedTime = new long[placeholderCount];
+        } else {
+            Arrays.fill(usedTime, 0, placeholderCount, 0);
+        }
+    }
+
+    /**
+     * Records a value change.
+     *
+     * @param   placeholder
+     *          Index of placeholder which changed value
+     * @param   player
+     *          Index of player the value changed for or {@code -1} for server placeholders
+     * @param   target
+     *          Index of relational target, {@code -1} if placeholder is not relational
+     *          or {@link #UNRESOLVED} if value was not saved
+     * @param   value
+     *          New value of the placeholder or unprocessed value if not saved
+     */
+    public void add(int placeholder, int player, int target, @NotNull String value) {
+        if (size == placeholders.length) {
+            int capacity = size * 2;
+            placeholders = Arrays.copyOf(placeholders, capacity);
+            players = Arrays.copyOf(players, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        placeholders[size] = placeholder;
+        players[size] = player;
+        targets[size] = target;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Adds time a placeholder took to retrieve value.
+     *
+     * @param   placeholder
+     *          Index of the placeholder
+     * @param   nanoseconds
+     *          Time to add
+     */
+    public void addTime(int placeholder, long nanoseconds) {
+        usedTime[placeholder] += nanoseconds;
+    }
+
+    /**
+     * Returns time placeholder with given index took to retrieve value in this loop.
+     *
+     * @param   placeholder
+     *          Index of the placeholder
+     * @return  Time in nanoseconds
+     */
+    public long getTime(int placeholder) {
+        return usedTime[placeholder];
+    }
+
+    /**
+     * Returns index of placeholder of change with given index.
+     *
+     * @param   index
+     *          Index of the change
+     * @return  Index of changed placeholder
+     */
+    public int getPlaceholder(int index) {
+        return placeholders[index];
+    }
+
+    /**
+     * Returns index of player of change with given index.
+     *
+     * @param   index
+     *          Index of the change
+     * @return  Index of the player or {@code -1} for server placeholders
+     */
+    public int getPlayer(int index) {
+        return players[index];
+    }
+
+    /**
+     * Returns index of relational target of change with given index.
+     *
+     * @param   index
+     *          Index of the change
+     * @return  Index of the target, {@code -1} if placeholder is not relational or {@link #UNRESOLVED} if value was not saved
+     */
+    public int getTarget(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Returns value returned by the placeholder in change with given index.
+     *
+     * @param   index
+     *          Index of the change
+     * @return  Value returned by the placeholder
+     */
+    @NotNull
+    public String getValue(int index) {
+        return values[index];
+    }
+}
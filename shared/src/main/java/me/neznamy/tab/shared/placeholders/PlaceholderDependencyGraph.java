@@ -0,0 +1,158 @@
+package me.neznamy.tab.shared.placeholders;
+
+import lombok.RequiredArgsConstructor;
+import me.neznamy.tab.api.placeholder.Placeholder;
+import me.neznamy.tab.shared.features.types.RefreshableFeature;
+import me.neznamy.tab.shared.placeholders.types.TabPlaceholder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of dependencies between placeholders and features. For each placeholder
+ * it holds an array of all features using it, either directly or through any of its parent
+ * placeholders (placeholders using it in their output). Placeholders are grouped into strongly
+ * connected components using Tarjan's algorithm, which finishes every component only after all
+ * components of its parents, so every array is built from already complete arrays of its parents.
+ * All placeholders in a cyclic dependency form a single component and share the same features.
+ */
+public class PlaceholderDependencyGraph {
+
+    /** Shared empty array for placeholders not used by any feature */
+    private static final RefreshableFeature[] NO_FEATURES = new RefreshableFeature[0];
+
+    /** All features using a placeholder directly or through parent placeholders */
+    @NotNull
+    private final Map<String, RefreshableFeature[]> features;
+
+    private PlaceholderDependencyGraph(@NotNull Map<String, RefreshableFeature[]> features) {
+        this.features = features;
+    }
+
+    /**
+     * Returns array of all features using given placeholder, either directly or through parent placeholders.
+     * The returned array is shared and must not be modified.
+     *
+     * @param   identifier
+     *          Placeholder identifier
+     * @return  All features using given placeholder
+     */
+    @NotNull
+    public RefreshableFeature[] getFeatures(@NotNull String identifier) {
+        return features.getOrDefault(identifier, NO_FEATURES);
+    }
+
+    /**
+     * Builds a new graph from given placeholder usage and registered placeholders.
+     *
+     * @param   usage
+     *          Map of placeholder identifiers and features using them directly
+     * @param   placeholders
+     *          Map of all registered placeholders
+     * @return  Built dependency graph
+     */
+    @NotNull
+    public static PlaceholderDependencyGraph build(@NotNull Map<String, Set<RefreshableFeature>> usage,
+                                                   @NotNull Map<String, Placeholder> placeholders) {
+        Builder builder = new Builder(usage, placeholders);
+        for (String identifier : usage.keySet()) {
+            if (!builder.index.containsKey(identifier)) builder.visit(identifier);
+        }
+        for (String identifier : placeholders.keySet()) {
+            if (!builder.index.containsKey(identifier)) builder.visit(identifier);
+        }
+        Map<String, RefreshableFeature[]> features = new HashMap<>();
+        for (Map.Entry<String, Set<RefreshableFeature>> entry : builder.resolved.entrySet()) {
+            if (entry.getValue().isEmpty()) continue;
+            features.put(entry.getKey(), entry.getValue().toArray(NO_FEATURES));
+        }
+        return new PlaceholderDependencyGraph(Collections.unmodifiableMap(features));
+    }
+
+    /**
+     * Tarjan's strongly connected components algorithm over placeholder to parent edges.
+     */
+    @RequiredArgsConstructor
+    private static class Builder {
+
+        /** Direct placeholder usage */
+        @NotNull private final Map<String, Set<RefreshableFeature>> usage;
+
+        /** Registered placeholders */
+        @NotNull private final Map<String, Placeholder> placeholders;
+
+        /** Order in which placeholders were visited */
+        @NotNull private final Map<String, Integer> index = new HashMap<>();
+
+        /** Lowest visit order reachable from each placeholder */
+        @NotNull private final Map<String, Integer> lowLink = new HashMap<>();
+
+        /** Visited placeholders whose component was not finished yet */
+        @NotNull private final Deque<String> stack = new ArrayDeque<>();
+
+        /** Placeholders currently in {@link #stack} */
+        @NotNull private final Set<String> onStack = new HashSet<>();
+
+        /** All features using placeholders of finished components */
+        @NotNull private final Map<String, Set<RefreshableFeature>> resolved = new HashMap<>();
+
+        /**
+         * Visits placeholder and all its parents. Once a component is finished, features
+         * of all its placeholders are resolved from direct usage and finished parent components.
+         *
+         * @param   identifier
+         *          Placeholder to visit
+         */
+        private void visit(@NotNull String identifier) {
+            int order = index.size();
+            index.put(identifier, order);
+            lowLink.put(identifier, order);
+            stack.push(identifier);
+            onStack.add(identifier);
+            for (String parent : getParents(identifier)) {
+                if (!index.containsKey(parent)) {
+                    visit(parent);
+                    lowLink.put(identifier, Math.min(lowLink.get(identifier), lowLink.get(parent)));
+                } else if (onStack.contains(parent)) {
+                    lowLink.put(identifier, Math.min(lowLink.get(identifier), index.get(parent)));
+                }
+            }
+            if (lowLink.get(identifier) != order) return;
+            List<String> component = new ArrayList<>();
+            String member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(identifier));
+            Set<RefreshableFeature> result = new LinkedHashSet<>();
+            for (String m : component) {
+                result.addAll(usage.getOrDefault(m, Collections.emptySet()));
+                for (String parent : getParents(m)) {
+                    Set<RefreshableFeature> parentFeatures = resolved.get(parent);
+                    if (parentFeatures != null) result.addAll(parentFeatures); // Parents in the same component are not resolved yet
+                }
+            }
+            for (String m : component) {
+                resolved.put(m, result);
+            }
+        }
+
+        @NotNull
+        private Collection<String> getParents(@NotNull String identifier) {
+            Placeholder placeholder = placeholders.get(identifier);
+            if (placeholder instanceof TabPlaceholder) return ((TabPlaceholder) placeholder).getParents();
+            return Collections.emptyList();
+        }
+    }
+}
@@ -4,81 +4,227 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import me.neznamy.tab.api.placeholder.Placeholder;
 import me.neznamy.tab.shared.TAB;
+import me.neznamy.tab.shared.cpu.ThreadExecutor;
 import me.neznamy.tab.shared.placeholders.types.PlayerPlaceholderImpl;
 import me.neznamy.tab.shared.placeholders.types.RelationalPlaceholderImpl;
 import me.neznamy.tab.shared.placeholders.types.ServerPlaceholderImpl;
+import me.neznamy.tab.shared.placeholders.types.TabPlaceholder;
 import me.neznamy.tab.shared.platform.TabPlayer;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A class that refreshes all requested placeholders using given refresh
- * function and returns the results.
+ * function, checks whether their values changed and returns only changed values
+ * in reusable {@link PlaceholderChangeBuffer}s. If a worker pool is provided, player and
+ * relational placeholders are refreshed in parallel, split by player into shards.
+ * Server placeholders and placeholders flagged as single-threaded are always
+ * refreshed in the thread running this task. Nested placeholders are applied
+ * using their last known values, values of player and relational placeholders
+ * are saved here, while server placeholder values, parents, TAB's expansion and
+ * values with nested placeholders which cannot be resolved yet are processed
+ * in the main thread.
  */
 @RequiredArgsConstructor
 @Getter
 public class PlaceholderRefreshTask implements Runnable {
 
+    /** Minimum amount of players per shard, splitting below this is not worth the overhead */
+    private static final int MIN_PLAYERS_PER_SHARD = 20;
+
     /** Placeholders that should be refreshed in this loop */
-    private final Collection<Placeholder> placeholdersToRefresh;
+    private final List<Placeholder> placeholdersToRefresh;
+
+    /** Worker pool for refreshing in parallel, {@code null} to refresh everything in current thread */
+    @Nullable
+    private final ThreadExecutor workers;
 
-    /** Map of server placeholder results */
-    private final Map<ServerPlaceholderImpl, String> serverPlaceholderResults = new HashMap<>();
+    /** Maximum amount of shards to split players into */
+    private final int maxShards;
 
-    /** Map of player placeholder results */
-    private final Map<PlayerPlaceholderImpl, Map<TabPlayer, String>> playerPlaceholderResults = new HashMap<>();
+    /** Pool of change buffers to take buffers from, buffers should be returned once results are processed */
+    private final Queue<PlaceholderChangeBuffer> bufferPool;
 
-    /** Map of relational placeholder results */
-    @Nullable
-    private Map<RelationalPlaceholderImpl, Map<TabPlayer, Map<TabPlayer, String>>> relationalPlaceholderResults;
+    /** Players the placeholders were refreshed for, indexed by player indexes in change buffers */
+    @NotNull
+    private TabPlayer[] players = new TabPlayer[0];
+
+    /** Buffers with changed values, one per shard */
+    private final List<PlaceholderChangeBuffer> changes = new ArrayList<>();
 
     /** Time it took placeholders to retrieve value (in nanoseconds) */
     private final Map<String, Long> usedTime = new HashMap<>();
 
     @Override
     public void run() {
-        boolean trackUsage = TAB.getInstance().getCpu().isTrackUsage();
-        TabPlayer[] players = TAB.getInstance().getOnlinePlayers();
-        for (Placeholder placeholder : placeholdersToRefresh) {
+        players = TAB.getInstance().getOnlinePlayers();
+        int placeholderCount = placeholdersToRefresh.size();
+        int shardCount = Math.min(maxShards, players.length / MIN_PLAYERS_PER_SHARD);
+        if (workers == null || shardCount < 2) {
+            int[] all = new int[placeholderCount];
+            for (int i = 0; i < placeholderCount; i++) {
+                all[i] = i;
+            }
+            PlaceholderChangeBuffer buffer = obtainBuffer();
+            refresh(buffer, all, 0, players.length, true);
+            finish();
+            return;
+        }
+        int[] parallel = new int[placeholderCount];
+        int[] pinned = new int[placeholderCount];
+        int parallelCount = 0;
+        int pinnedCount = 0;
+        for (int i = 0; i < placeholderCount; i++) {
+            Placeholder placeholder = placeholdersToRefresh.get(i);
+            if (placeholder instanceof ServerPlaceholderImpl || ((TabPlaceholder) placeholder).isSingleThreaded()) {
+                pinned[pinnedCount++] = i;
+            } else {
+                parallel[parallelCount++] = i;
+            }
+        }
+        int[] parallelIndexes = trim(parallel, parallelCount);
+        CompletableFuture<?>[] futures = new CompletableFuture[shardCount];
+        int shardSize = (players.length + shardCount - 1) / shardCount;
+        for (int i = 0; i < shardCount; i++) {
+            PlaceholderChangeBuffer shard = obtainBuffer();
+            int from = i * shardSize;
+            int to = Math.min(players.length, from + shardSize);
+            futures[i] = workers.submit(() -> refresh(shard, parallelIndexes, from, to, false));
+        }
+
+        // Refresh pinned placeholders in this thread while workers are busy
+        refresh(obtainBuffer(), trim(pinned, pinnedCount), 0, players.length, true);
+
+        CompletableFuture.allOf(futures).join();
+        finish();
+    }
+
+    /**
+     * Refreshes given placeholders for players in given range of the player array and saves changed values
+     * into given buffer. Relational placeholders are refreshed for viewers in given range against all players.
+     *
+     * @param   buffer
+     *          Buffer to save changed values into
+     * @param   placeholderIndexes
+     *          Indexes of placeholders to refresh
+     * @param   from
+     *          Index of first player to refresh (inclusive)
+     * @param   to
+     *          Index of last player to refresh (exclusive)
+     * @param   refreshServerPlaceholders
+     *          Whether server placeholders should be refreshed or not
+     */
+    private void refresh(@NotNull PlaceholderChangeBuffer buffer, @NotNull int[] placeholderIndexes, int from, int to,
+                         boolean refreshServerPlaceholders) {
+        for (int index : placeholderIndexes) {
+            Placeholder placeholder = placeholdersToRefresh.get(index);
             long nanoTime = 0;
             if (placeholder instanceof ServerPlaceholderImpl) {
+                if (!refreshServerPlaceholders) continue;
                 ServerPlaceholderImpl serverPlaceholder = (ServerPlaceholderImpl) placeholder;
                 long startTime = System.nanoTime();
                 String result = serverPlaceholder.request();
                 nanoTime += System.nanoTime()-startTime;
-                serverPlaceholderResults.put(serverPlaceholder, result);
+                if (result != null) {
+                    String newValue = serverPlaceholder.resolveValue(result);
+                    if (newValue == null) {
+                        // Nested placeholders must be applied in the main thread
+                        buffer.add(index, -1, PlaceholderChangeBuffer.UNRESOLVED, result);
+                    } else if (serverPlaceholder.isChanged(newValue)) {
+                        buffer.add(index, -1, -1, newValue);
+                    }
+                }
             }
             if (placeholder instanceof PlayerPlaceholderImpl) {
                 PlayerPlaceholderImpl playerPlaceholder = (PlayerPlaceholderImpl) placeholder;
-                Map<TabPlayer, String> playerResults = new HashMap<>();
-                for (TabPlayer player : players) {
+                for (int i = from; i < to; i++) {
+                    TabPlayer player = players[i];
                     long startTime = System.nanoTime();
                     String result = playerPlaceholder.request(player);
                     nanoTime += System.nanoTime()-startTime;
-                    playerResults.put(player, result);
+                    if (result == null || !player.isOnline()) continue; // Bridge placeholder or player disconnected in the meantime
+                    String resolved = playerPlaceholder.resolveValue(player, result);
+                    if (resolved == null) {
+                        // Nested placeholders must be applied in the main thread
+                        buffer.add(index, i, PlaceholderChangeBuffer.UNRESOLVED, result);
+                        continue;
+                    }
+                    String newValue = playerPlaceholder.saveValue(player, resolved);
+                    if (newValue != null) {
+                        buffer.add(index, i, -1, newValue);
+                    }
                 }
-                playerPlaceholderResults.put(playerPlaceholder, playerResults);
             }
             if (placeholder instanceof RelationalPlaceholderImpl) {
                 RelationalPlaceholderImpl relationalPlaceholder = (RelationalPlaceholderImpl) placeholder;
-                Map<TabPlayer, Map<TabPlayer, String>> viewerMap = new HashMap<>();
-                for (TabPlayer viewer : players) {
-                    Map<TabPlayer, String> targetMap = new HashMap<>();
-                    for (TabPlayer target : players) {
+                for (int i = from; i < to; i++) {
+                    TabPlayer viewer = players[i];
+                    for (int j = 0; j < players.length; j++) {
+                        TabPlayer target = players[j];
                         long startTime = System.nanoTime();
                         String result = relationalPlaceholder.request(viewer, target);
                         nanoTime += System.nanoTime()-startTime;
-                        targetMap.put(target, result);
+                        if (!viewer.isOnline() || !target.isOnline()) continue; // Player disconnected in the meantime
+                        if (relationalPlaceholder.hasValueChanged(viewer, target, result, false)) {
+                            buffer.add(index, i, j, result);
+                        }
                     }
-                    viewerMap.put(viewer, targetMap);
                 }
-                if (relationalPlaceholderResults == null) relationalPlaceholderResults = new HashMap<>();
-                relationalPlaceholderResults.put(relationalPlaceholder, viewerMap);
             }
-            if (trackUsage) usedTime.put(placeholder.getIdentifier(), nanoTime);
+            buffer.addTime(index, nanoTime);
         }
     }
+
+    /**
+     * Takes a buffer from the pool (or creates a new one if the pool is empty),
+     * prepares it for this loop and adds it into the list of result buffers.
+     *
+     * @return  Buffer ready to be used
+     */
+    @NotNull
+    private PlaceholderChangeBuffer obtainBuffer() {
+        PlaceholderChangeBuffer buffer = bufferPool.poll();
+        if (buffer == null) buffer = new PlaceholderChangeBuffer();
+        buffer.reset(placeholdersToRefresh.size());
+        changes.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Sums up time placeholders took from all shards if CPU usage is being tracked.
+     */
+    private void finish() {
+        if (!TAB.getInstance().getCpu().isTrackUsage()) return;
+        for (int i = 0; i < placeholdersToRefresh.size(); i++) {
+            long time = 0;
+            for (PlaceholderChangeBuffer buffer : changes) {
+                time += buffer.getTime(i);
+            }
+            usedTime.put(placeholdersToRefresh.get(i).getIdentifier(), time);
+        }
+    }
+
+    /**
+     * Returns array with first {@code length} elements of given array.
+     *
+     * @param   array
+     *          Array to trim
+     * @param   length
+     *          Amount of elements to keep
+     * @return  Trimmed array
+     */
+    @NotNull
+    private static int[] trim(@NotNull int[] array, int length) {
+        if (array.length == length) return array;
+        int[] trimmed = new int[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
 }
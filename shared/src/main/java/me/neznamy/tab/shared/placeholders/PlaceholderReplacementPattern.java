@@ -1,9 +1,11 @@
 package me.neznamy.tab.shared.placeholders;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import me.neznamy.chat.EnumChatFormat;
 import me.neznamy.tab.shared.features.PlaceholderManagerImpl;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.Map.Entry;
@@ -23,12 +25,27 @@ public class PlaceholderReplacementPattern {
      */
     private final Map<String, String> replacements = new HashMap<>();
 
+    /** Powers of 10 which can be represented exactly as a double */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /** Minimums of number intervals sorted in ascending order */
+    @NotNull private final float[] intervalMinimums;
+
+    /** Maximums of number intervals, in the same order as minimums */
+    @NotNull private final float[] intervalMaximums;
+
     /**
-     * Map of number intervals where key is a 2-dimensional array
-     * with first value being minimum and second value maximum and value
-     * being output to replace to.
+     * Highest maximum of all intervals up to the index (inclusive), used
+     * to stop searching once no previous interval can contain the value
      */
-    private final Map<float[], String> numberIntervals = new HashMap<>();
+    @NotNull private final float[] intervalMaximumsUpTo;
+
+    /** Outputs of number intervals, in the same order as minimums */
+    @NotNull private final String[] intervalOutputs;
+
+    /** Last output and its replacement */
+    @Nullable private volatile LastReplacement lastReplacement;
 
     /** Set of all used placeholders in replacement values */
     @Getter private final Set<String> nestedPlaceholders = new HashSet<>();
@@ -46,6 +63,7 @@ public class PlaceholderReplacementPattern {
      */
     private PlaceholderReplacementPattern(@NotNull String identifier, @NotNull Map<Object, Object> map) {
         empty = map.isEmpty();
+        List<Interval> intervals = new ArrayList<>();
         for (Entry<Object, Object> entry : map.entrySet()) {
             String key = String.valueOf(entry.getKey());
             String value = String.valueOf(entry.getValue()).replace(identifier, "%value%");
@@ -60,15 +78,46 @@ public class PlaceholderReplacementPattern {
             } else if ("false".equals(key)) {
                 replacements.put("no", value);
                 replacements.put("No", value);
-            } else if (key.contains("-")) {
-                try {
-                    numberIntervals.put(new float[]{Float.parseFloat(key.split("-")[0]), Float.parseFloat(key.split("-")[1])}, value);
-                } catch (NumberFormatException ignored) {}
-                try {
-                    numberIntervals.put(new float[]{Float.parseFloat(key.split("~")[0]), Float.parseFloat(key.split("~")[1])}, value);
-                } catch (NumberFormatException ignored) {}
+            } else if (key.contains("-") || key.contains("~")) {
+                Interval interval = parseInterval(key, value);
+                if (interval != null) intervals.add(interval);
             }
         }
+        intervals.sort(Comparator.comparingDouble(interval -> interval.min));
+        int size = intervals.size();
+        intervalMinimums = new float[size];
+        intervalMaximums = new float[size];
+        intervalMaximumsUpTo = new float[size];
+        intervalOutputs = new String[size];
+        for (int i = 0; i < size; i++) {
+            Interval interval = intervals.get(i);
+            intervalMinimums[i] = interval.min;
+            intervalMaximums[i] = interval.max;
+            intervalMaximumsUpTo[i] = i == 0 ? interval.max : Math.max(intervalMaximumsUpTo[i-1], interval.max);
+            intervalOutputs[i] = interval.output;
+        }
+    }
+
+    /**
+     * Parses number interval from given key. Supported formats are {@code <min>-<max>}
+     * and {@code <min>~<max>}, where the latter allows negative numbers.
+     *
+     * @param   key
+     *          Configured key
+     * @param   output
+     *          Output to replace to if value is inside the interval
+     * @return  Parsed interval or {@code null} if key is not a valid interval
+     */
+    @Nullable
+    private static Interval parseInterval(@NotNull String key, @NotNull String output) {
+        for (String delimiter : new String[]{"-", "~"}) {
+            String[] parts = key.split(delimiter);
+            if (parts.length < 2) continue;
+            try {
+                return new Interval(Float.parseFloat(parts[0]), Float.parseFloat(parts[1]), output);
+            } catch (NumberFormatException ignored) {}
+        }
+        return null;
     }
 
     /**
@@ -82,10 +131,13 @@ public class PlaceholderReplacementPattern {
     @NotNull
     public String findReplacement(@NotNull String output) {
         if (empty) return output;
+        LastReplacement last = lastReplacement;
+        if (last != null && last.output.equals(output)) return last.replacement;
         String replacement = findReplacement0(output);
         if (replacement.contains("%value%")) {
             replacement = replacement.replace("%value%", output);
         }
+        lastReplacement = new LastReplacement(output, replacement);
         return replacement;
     }
 
@@ -105,14 +157,10 @@ public class PlaceholderReplacementPattern {
         }
         
         //number interval
-        if (!numberIntervals.isEmpty()) {  //not parsing number if no intervals are configured
+        if (intervalOutputs.length > 0) {  //not parsing number if no intervals are configured
             try {
-                //supporting placeholders with fancy output using "," every 3 digits
-                String cleanValue = output.contains(",") ? output.replace(",", "") : output;
-                float value = Float.parseFloat(cleanValue);
-                for (Entry<float[], String> entry : numberIntervals.entrySet()) {
-                    if (entry.getKey()[0] <= value && value <= entry.getKey()[1]) return entry.getValue();
-                }
+                String interval = findInterval(parseFloat(output));
+                if (interval != null) return interval;
             } catch (NumberFormatException e) {
                 //placeholder output is not a number
             }
@@ -125,6 +173,88 @@ public class PlaceholderReplacementPattern {
         return output;
     }
 
+    /**
+     * Returns output of number interval containing given value. If multiple intervals
+     * contain the value, the one with the highest minimum is used.
+     *
+     * @param   value
+     *          Value to find interval for
+     * @return  Output of interval containing the value or {@code null} if there is none
+     */
+    @Nullable
+    private String findInterval(float value) {
+        // Last interval with minimum lower than or equal to the value
+        int low = 0;
+        int high = intervalMinimums.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (intervalMinimums[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        for (int i = high; i >= 0 && intervalMaximumsUpTo[i] >= value; i--) {
+            if (value <= intervalMaximums[i]) return intervalOutputs[i];
+        }
+        return null;
+    }
+
+    /**
+     * Parses float from placeholder output. Plain decimal numbers, including
+     * placeholders with fancy output using "," every 3 digits, are parsed
+     * without creating any objects, everything else is passed to
+     * {@link Float#parseFloat(String)}.
+     *
+     * @param   output
+     *          Placeholder output to parse
+     * @return  Parsed number
+     * @throws  NumberFormatException
+     *          If output is not a valid number
+     */
+    private static float parseFloat(@NotNull String output) {
+        int length = output.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (output.charAt(0) == '-' || output.charAt(0) == '+')) {
+            negative = output.charAt(0) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < length; i++) {
+            char c = output.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (decimals != -1) decimals++;
+                // Only use the fast path while the result is guaranteed to be exact
+                if (++digits > 15) return slowParseFloat(output);
+            } else if (c == '.' && decimals == -1) {
+                decimals = 0;
+            } else if (c != ',' || decimals != -1) {
+                return slowParseFloat(output);
+            }
+        }
+        if (digits == 0) return slowParseFloat(output);
+        double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Parses float using {@link Float#parseFloat(String)} after removing
+     * "," used by placeholders with fancy output every 3 digits.
+     *
+     * @param   output
+     *          Placeholder output to parse
+     * @return  Parsed number
+     * @throws  NumberFormatException
+     *          If output is not a valid number
+     */
+    private static float slowParseFloat(@NotNull String output) {
+        return Float.parseFloat(output.indexOf(',') == -1 ? output : output.replace(",", ""));
+    }
+
     /**
      * Returns new instance from given parameters.
      *
@@ -138,4 +268,33 @@ public class PlaceholderReplacementPattern {
         if (map.isEmpty()) return EMPTY;
         return new PlaceholderReplacementPattern(identifier, map);
     }
+
+    /**
+     * Number interval with its output.
+     */
+    @AllArgsConstructor
+    private static class Interval {
+
+        /** Minimum value (inclusive) */
+        private final float min;
+
+        /** Maximum value (inclusive) */
+        private final float max;
+
+        /** Output to replace to */
+        @NotNull private final String output;
+    }
+
+    /**
+     * Placeholder output and its replacement.
+     */
+    @AllArgsConstructor
+    private static class LastReplacement {
+
+        /** Placeholder output */
+        @NotNull private final String output;
+
+        /** Replacement of the output */
+        @NotNull private final String replacement;
+    }
 }
\ No newline at end of file
@@ -9,7 +9,10 @@ import org.jetbrains.annotations.NotNull;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * This class represents "placeholders" configuration section.
@@ -23,6 +26,12 @@ public class PlaceholdersConfiguration {
     private final double timeOffset;
     private final boolean registerTabExpansion;
 
+    /** Amount of worker threads for refreshing placeholders, {@code 0} keeps refreshing in a single thread */
+    private final int parallelRefreshThreads;
+
+    /** Placeholders which are not thread-safe and must always be refreshed from the same thread */
+    @NotNull private final Set<String> singleThreadedPlaceholders;
+
     /**
      * Returns instance of this class created from given configuration section. If there are
      * issues in the configuration, console warns are printed.
@@ -34,13 +43,22 @@ public class PlaceholdersConfiguration {
     @NotNull
     public static PlaceholdersConfiguration fromSection(@NotNull ConfigurationSection section) {
         // Check keys
-        section.checkForUnknownKey(Arrays.asList("date-format", "time-format", "time-offset", "register-tab-expansion"));
+        section.checkForUnknownKey(Arrays.asList("date-format", "time-format", "time-offset", "register-tab-expansion",
+                "parallel-refresh-threads", "single-threaded-placeholders"));
+
+        int parallelRefreshThreads = section.getInt("parallel-refresh-threads", 0);
+        if (parallelRefreshThreads < 0) {
+            section.startupWarn("Parallel placeholder refresh thread count cannot be negative (configured " + parallelRefreshThreads + "). Using 0 (disabled).");
+            parallelRefreshThreads = 0;
+        }
 
         return new PlaceholdersConfiguration(
                 parseDateFormat(section.getString("date-format", "dd.MM.yyyy"), "dd.MM.yyyy"),
                 parseDateFormat(section.getString("time-format", "[HH:mm:ss / h:mm a]"), "[HH:mm:ss / h:mm a]"),
                 section.getNumber("time-offset", 0).doubleValue(),
-                section.getBoolean("register-tab-expansion", false)
+                section.getBoolean("register-tab-expansion", false),
+                parallelRefreshThreads,
+                Collections.unmodifiableSet(new HashSet<>(section.getStringList("single-threaded-placeholders", Collections.emptyList())))
         );
     }
 
@@ -23,19 +23,23 @@ import java.util.stream.Collectors;
  */
 public class Condition {
 
+    /** Pattern matching `|` symbol except cases where it is used as |- or -| */
+    private static final Pattern OR_DELIMITER = Pattern.compile("(?<!-)[|](?!-)");
+
     /** All conditions defined in configuration including anonymous conditions */
     private static Map<String, Condition> registeredConditions = new HashMap<>();
 
     /** All supported sub-condition types */
     @Getter
-    private static final Map<String, Function<String, Function<TabPlayer, Boolean>>> conditionTypes = new LinkedHashMap<>();
+    private static final Map<String, Function<String, SubCondition>> conditionTypes = new LinkedHashMap<>();
 
     /** Name of this condition defined in configuration */
     @Getter
     private final String name;
 
     /** All defined sub-conditions inside this conditions */
-    protected final List<Function<TabPlayer, Boolean>> subConditions = new ArrayList<>();
+    @NotNull
+    protected final SubCondition[] subConditions;
 
     /** Condition type, {@code true} for AND type and {@code false} for OR type */
     private final boolean type;
@@ -56,15 +60,15 @@ public class Condition {
     private final List<String> placeholdersInConditions = new ArrayList<>();
 
     static {
-        conditionTypes.put(">=", line -> new NumericCondition(splitAndTrim(line, ">="), (left, right) -> left >= right)::isMet);
-        conditionTypes.put(">", line -> new NumericCondition(splitAndTrim(line, ">"), (left, right) -> left > right)::isMet);
-        conditionTypes.put("<=", line -> new NumericCondition(splitAndTrim(line, "<="), (left, right) -> left <= right)::isMet);
-        conditionTypes.put("<-", line -> new StringCondition(splitAndTrim(line, "<-"), String::contains)::isMet);
-        conditionTypes.put("<", line -> new NumericCondition(splitAndTrim(line, "<"), (left, right) -> left < right)::isMet);
-        conditionTypes.put("|-", line -> new StringCondition(splitAndTrim(line, "|-"), String::startsWith)::isMet);
-        conditionTypes.put("-|", line -> new StringCondition(splitAndTrim(line, "-|"), String::endsWith)::isMet);
-        conditionTypes.put("!=", line -> new StringCondition(splitAndTrim(line, "!="), (left, right) -> !left.equals(right))::isMet);
-        conditionTypes.put("=", line -> new StringCondition(splitAndTrim(line, "="), String::equals)::isMet);
+        conditionTypes.put(">=", line -> new NumericCondition(splitAndTrim(line, ">="), (left, right) -> left >= right));
+        conditionTypes.put(">", line -> new NumericCondition(splitAndTrim(line, ">"), (left, right) -> left > right));
+        conditionTypes.put("<=", line -> new NumericCondition(splitAndTrim(line, "<="), (left, right) -> left <= right));
+        conditionTypes.put("<-", line -> new StringCondition(splitAndTrim(line, "<-"), String::contains));
+        conditionTypes.put("<", line -> new NumericCondition(splitAndTrim(line, "<"), (left, right) -> left < right));
+        conditionTypes.put("|-", line -> new StringCondition(splitAndTrim(line, "|-"), String::startsWith));
+        conditionTypes.put("-|", line -> new StringCondition(splitAndTrim(line, "-|"), String::endsWith));
+        conditionTypes.put("!=", line -> new StringCondition(splitAndTrim(line, "!="), (left, right) -> !left.equals(right)));
+        conditionTypes.put("=", line -> new StringCondition(splitAndTrim(line, "="), String::equals));
         conditionTypes.put("!permission:", line -> {
             String node = splitAndTrim(line, ":")[1];
             return p -> !p.hasPermission(node);
@@ -133,14 +137,16 @@ public class Condition {
         this.name = name;
         this.yes = yes;
         this.no = no;
+        List<SubCondition> compiled = new ArrayList<>();
         for (String line : conditions) {
-            Function<TabPlayer, Boolean> condition = compile(line);
+            SubCondition condition = compile(line);
             if (condition != null) {
-                subConditions.add(condition);
+                compiled.add(condition);
             } else {
                 TAB.getInstance().getConfigHelper().startup().invalidConditionPattern(name, line);
             }
         }
+        subConditions = compiled.toArray(new SubCondition[0]);
         for (String subCondition : conditions) {
             if (subCondition.contains("permission:")) {
                 int permissionRefresh = TAB.getInstance().getConfiguration().getConfig().getPermissionRefreshInterval();
@@ -188,13 +194,13 @@ public class Condition {
      */
     public boolean isMet(TabPlayer p) {
         if (type) {
-            for (Function<TabPlayer, Boolean> condition : subConditions) {
-                if (!condition.apply(p)) return false;
+            for (SubCondition condition : subConditions) {
+                if (!condition.isMet(p)) return false;
             }
             return true;
         } else {
-            for (Function<TabPlayer, Boolean> condition : subConditions) {
-                if (condition.apply(p)) return true;
+            for (SubCondition condition : subConditions) {
+                if (condition.isMet(p)) return true;
             }
             return false;
         }
@@ -248,11 +254,8 @@ public class Condition {
     private static List<String> splitString(@NotNull String input) {
         List<String> result = new ArrayList<>();
 
-        // Define a regular expression pattern to match the desired delimiter
-        Pattern pattern = Pattern.compile("(?<!-)[|](?!-)");
-
         // Use a Matcher to split the input string
-        Matcher matcher = pattern.matcher(input);
+        Matcher matcher = OR_DELIMITER.matcher(input);
         int start = 0;
 
         while (matcher.find()) {
@@ -293,13 +296,14 @@ public class Condition {
      *          condition pattern
      * @return  compiled condition or null if no valid pattern was found
      */
-    private static Function<TabPlayer, Boolean> compile(String pattern) {
+    @Nullable
+    private static SubCondition compile(String pattern) {
         // Avoid wrong condition type detection if placeholder contains a symbol that is used in condition patterns (#1503)
         String noPlaceholders = pattern;
         for (String placeholder : PlaceholderManagerImpl.detectPlaceholders(pattern)) {
             noPlaceholders = noPlaceholders.replace(placeholder, "");
         }
-        for (Map.Entry<String, Function<String, Function<TabPlayer, Boolean>>> entry : conditionTypes.entrySet()) {
+        for (Map.Entry<String, Function<String, SubCondition>> entry : conditionTypes.entrySet()) {
             if (noPlaceholders.contains(entry.getKey())) {
                 return entry.getValue().apply(pattern);
             }
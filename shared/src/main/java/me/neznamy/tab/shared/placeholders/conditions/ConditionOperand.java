@@ -0,0 +1,182 @@
+package me.neznamy.tab.shared.placeholders.conditions;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import me.neznamy.chat.EnumChatFormat;
+import me.neznamy.tab.shared.TAB;
+import me.neznamy.tab.shared.features.PlaceholderManagerImpl;
+import me.neznamy.tab.shared.placeholders.types.TabPlaceholder;
+import me.neznamy.tab.shared.platform.TabPlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * One side of a simple condition, compiled once when the condition is created.
+ * Placeholders used in it are resolved on first use and only resolved again
+ * after placeholder registrations change. Numeric value of the last parsed
+ * text is cached, so the same text is not parsed repeatedly.
+ */
+public class ConditionOperand {
+
+    /** Raw text of this operand */
+    @Getter @NotNull private final String text;
+
+    /** Identifiers of placeholders used in the text */
+    @NotNull private final String[] identifiers;
+
+    /** Colored text if it contains no placeholders */
+    @NotNull private final String staticText;
+
+    /** {@code true} if this operand is a number without placeholders, {@code false} if not */
+    @Getter private final boolean staticNumber;
+
+    /** Value of this operand if it is a static number */
+    private final double staticValue;
+
+    /** Placeholders resolved from identifiers */
+    @Nullable private volatile ResolvedPlaceholders resolved;
+
+    /** Last parsed text and its numeric value */
+    @Nullable private volatile ParsedNumber lastParsed;
+
+    /**
+     * Constructs new instance from given text.
+     *
+     * @param   text
+     *          Raw text of the operand
+     */
+    public ConditionOperand(@NonNull String text) {
+        this.text = text;
+        List<String> placeholders = PlaceholderManagerImpl.detectPlaceholders(text);
+        identifiers = placeholders.toArray(new String[0]);
+        staticText = EnumChatFormat.color(text);
+        double value = 0;
+        boolean number = false;
+        if (identifiers.length == 0) {
+            try {
+                value = Double.parseDouble(text);
+                number = true;
+            } catch (NumberFormatException e) {
+                //not a valid number
+            }
+        }
+        staticValue = value;
+        staticNumber = number;
+    }
+
+    /**
+     * Returns {@code true} if this operand contains no placeholders and therefore
+     * has the same value for all players, {@code false} if not.
+     *
+     * @return  {@code true} if operand is static, {@code false} if not
+     */
+    public boolean isStatic() {
+        return identifiers.length == 0;
+    }
+
+    /**
+     * Returns text of this operand with placeholders replaced for given player.
+     *
+     * @param   p
+     *          player to replace placeholders for
+     * @return  replaced text
+     */
+    @NotNull
+    public String getText(@NotNull TabPlayer p) {
+        if (identifiers.length == 0) return staticText;
+        String result = text;
+        for (TabPlaceholder placeholder : getPlaceholders()) {
+            result = placeholder.set(result, p);
+        }
+        return EnumChatFormat.color(result);
+    }
+
+    /**
+     * Returns numeric value of this operand for given player. If the text
+     * is not a valid number, a warning is printed and {@code 0} is returned.
+     *
+     * @param   p
+     *          player to get value for
+     * @return  numeric value of this operand
+     */
+    public double getNumber(@NotNull TabPlayer p) {
+        if (staticNumber) return staticValue;
+        String value = getText(p);
+        ParsedNumber last = lastParsed;
+        if (last != null && last.text.equals(value)) return last.value;
+        double parsed = parseDouble(value, p);
+        lastParsed = new ParsedNumber(value, parsed);
+        return parsed;
+    }
+
+    /**
+     * Parses double in given string and returns it.
+     * Returns {@code 0} if string is not valid and prints a console warn.
+     *
+     * @param   output
+     *          string to parse
+     * @param   player
+     *          Player used in error message
+     * @return  parsed double or {@code 0} if input is invalid
+     */
+    private double parseDouble(@NotNull String output, @NotNull TabPlayer player) {
+        try {
+            return Double.parseDouble(output.indexOf(',') == -1 ? output : output.replace(",", ""));
+        } catch (NumberFormatException e) {
+            TAB.getInstance().getConfigHelper().runtime().invalidNumberForCondition(text, output, player);
+            return 0;
+        }
+    }
+
+    /**
+     * Returns placeholders used in this operand, resolving them again if
+     * placeholder registrations changed since they were last resolved.
+     *
+     * @return  placeholders used in this operand
+     */
+    @NotNull
+    private TabPlaceholder[] getPlaceholders() {
+        PlaceholderManagerImpl manager = TAB.getInstance().getPlaceholderManager();
+        int version = manager.getRegistrationVersion();
+        ResolvedPlaceholders current = resolved;
+        if (current != null && current.manager == manager && current.version == version) return current.placeholders;
+        TabPlaceholder[] placeholders = new TabPlaceholder[identifiers.length];
+        for (int i = 0; i < identifiers.length; i++) {
+            placeholders[i] = manager.getPlaceholder(identifiers[i]);
+        }
+        resolved = new ResolvedPlaceholders(manager, version, placeholders);
+        return placeholders;
+    }
+
+    /**
+     * Placeholders resolved with a specific registration version.
+     */
+    @AllArgsConstructor
+    private static class ResolvedPlaceholders {
+
+        /** Placeholder manager the placeholders were resolved from */
+        @NotNull private final PlaceholderManagerImpl manager;
+
+        /** Registration version the placeholders were resolved with */
+        private final int version;
+
+        /** Resolved placeholders */
+        @NotNull private final TabPlaceholder[] placeholders;
+    }
+
+    /**
+     * Text and its parsed numeric value.
+     */
+    @AllArgsConstructor
+    private static class ParsedNumber {
+
+        /** Parsed text */
+        @NotNull private final String text;
+
+        /** Numeric value of the text */
+        private final double value;
+    }
+}
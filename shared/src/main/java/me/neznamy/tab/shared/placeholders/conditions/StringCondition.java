@@ -3,7 +3,7 @@ package me.neznamy.tab.shared.placeholders.conditions;
 import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 
 /**
  * Condition class for conditions that use String operations.
@@ -12,7 +12,7 @@ public class StringCondition extends SimpleCondition {
 
     /** Condition function */
     @NotNull
-    private final BiFunction<String, String, Boolean> function;
+    private final BiPredicate<String, String> function;
 
     /**
      * Constructs new instance with given parameters.
@@ -22,13 +22,13 @@ public class StringCondition extends SimpleCondition {
      * @param   function
      *          Condition function
      */
-    public StringCondition(@NotNull String[] arr, @NotNull BiFunction<String, String, Boolean> function) {
+    public StringCondition(@NotNull String[] arr, @NotNull BiPredicate<String, String> function) {
         super(arr);
         this.function = function;
     }
 
     @Override
     public boolean isMet(@NotNull TabPlayer p) {
-        return function.apply(parseLeftSide(p), parseRightSide(p));
+        return function.test(parseLeftSide(p), parseRightSide(p));
     }
 }
@@ -0,0 +1,20 @@
+package me.neznamy.tab.shared.placeholders.conditions;
+
+import me.neznamy.tab.shared.platform.TabPlayer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A single compiled line of a condition.
+ */
+@FunctionalInterface
+public interface SubCondition {
+
+    /**
+     * Returns {@code true} if this line is met for player, {@code false} if not
+     *
+     * @param   p
+     *          player to check condition for
+     * @return  {@code true} if met, {@code false} if not
+     */
+    boolean isMet(@NotNull TabPlayer p);
+}
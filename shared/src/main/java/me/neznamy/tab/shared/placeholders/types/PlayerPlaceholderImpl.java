@@ -11,6 +11,7 @@ import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -76,7 +77,7 @@ public class PlayerPlaceholderImpl extends TabPlaceholder implements PlayerPlace
         Set<RefreshableFeature> features = new HashSet<>();
         for (Map.Entry<PlayerPlaceholderImpl, String> entry : values.entrySet()) {
             if (entry.getKey().hasValueChanged(player, entry.getValue(), true)) {
-                features.addAll(TAB.getInstance().getPlaceholderManager().getPlaceholderUsage(entry.getKey().identifier));
+                Collections.addAll(features, TAB.getInstance().getPlaceholderManager().getPlaceholderUsage(entry.getKey().identifier));
             }
         }
         if (!player.isLoaded()) return;
@@ -105,15 +106,62 @@ public class PlayerPlaceholderImpl extends TabPlaceholder implements PlayerPlace
     public boolean hasValueChanged(@NotNull TabPlayer p, @Nullable String value, boolean updateParents) {
         if (value == null) return false; //bridge placeholders, they are updated using updateValue method
         if (ERROR_VALUE.equals(value)) return false;
-        String newValue = replacements.findReplacement(setPlaceholders(value, p));
-        if (newValue.equals(identifier)) return false;
+        String newValue = saveValue(p, setPlaceholders(value, p));
+        if (newValue == null) return false;
+        if (updateParents) updateParents(p);
+        TAB.getInstance().getPlaceholderManager().getTabExpansion().setPlaceholderValue(p, identifier, newValue);
+        return true;
+    }
+
+    /**
+     * Applies nested placeholders in placeholder output using their last known values without
+     * any side effects. This method is safe to call from placeholder refreshing workers.
+     *
+     * @param   p
+     *          Player to resolve value for
+     * @param   value
+     *          Placeholder output
+     * @return  Output with nested placeholders replaced or {@code null} if it must be
+     *          resolved in the main thread using {@link #hasValueChanged(TabPlayer, String, boolean)}
+     */
+    @Nullable
+    public String resolveValue(@NotNull TabPlayer p, @NotNull String value) {
+        return peekPlaceholders(value, p);
+    }
+
+    /**
+     * Saves new value of the placeholder without any side effects and returns the new value
+     * if it changed. Nested placeholders in the value are not replaced, so the value must not
+     * contain any. Parents and expansion must be updated using {@link #onValueChange(TabPlayer, String)}
+     * in the main thread. This method is safe to call from placeholder refreshing workers.
+     *
+     * @param   p
+     *          Player to update value for
+     * @param   value
+     *          New value without nested placeholders
+     * @return  New value after applying replacements if it changed, {@code null} if not
+     */
+    @Nullable
+    public String saveValue(@NotNull TabPlayer p, @NotNull String value) {
+        if (ERROR_VALUE.equals(value)) return null;
+        String newValue = replacements.findReplacement(value);
+        if (newValue.equals(identifier)) return null;
         String lastValue = p.lastPlaceholderValues.put(this, newValue);
-        if (!newValue.equals(lastValue)) {
-            if (updateParents) updateParents(p);
-            TAB.getInstance().getPlaceholderManager().getTabExpansion().setPlaceholderValue(p, identifier, newValue);
-            return true;
-        }
-        return false;
+        return newValue.equals(lastValue) ? null : newValue;
+    }
+
+    /**
+     * Updates parent placeholders and TAB's expansion after value was saved using
+     * {@link #saveValue(TabPlayer, String)}.
+     *
+     * @param   p
+     *          Player whose value changed
+     * @param   newValue
+     *          New value of the placeholder
+     */
+    public void onValueChange(@NotNull TabPlayer p, @NotNull String newValue) {
+        updateParents(p);
+        TAB.getInstance().getPlaceholderManager().getTabExpansion().setPlaceholderValue(p, identifier, newValue);
     }
 
     @Override
@@ -139,6 +187,12 @@ public class PlayerPlaceholderImpl extends TabPlaceholder implements PlayerPlace
         return player.lastPlaceholderValues.getOrDefault(this, identifier);
     }
 
+    @Override
+    @Nullable
+    public String peekLastValue(@Nullable TabPlayer player) {
+        return player == null ? identifier : player.lastPlaceholderValues.get(this);
+    }
+
     /**
      * Calls the placeholder request function and returns the output.
      * If the placeholder threw an exception, it is logged in {@code placeholder-errors.log}
@@ -2,7 +2,6 @@ package me.neznamy.tab.shared.placeholders.types;
 
 import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.function.BiFunction;
 
@@ -51,7 +50,7 @@ public class RelationalPlaceholderImpl extends TabPlaceholder implements Relatio
 
     @Override
     public void updateValue(@NonNull me.neznamy.tab.api.TabPlayer viewer, @NonNull me.neznamy.tab.api.TabPlayer target, @Nullable String value) {
-        if (hasValueChanged((TabPlayer) viewer, (TabPlayer) target, value)) {
+        if (hasValueChanged((TabPlayer) viewer, (TabPlayer) target, value, true)) {
             for (RefreshableFeature r : TAB.getInstance().getPlaceholderManager().getPlaceholderUsage(identifier)) {
                 TimedCaughtTask task = new TimedCaughtTask(TAB.getInstance().getCpu(), () -> r.refresh((TabPlayer) target, true),
                         r.getFeatureName(), r.getRefreshDisplayName());
@@ -73,16 +72,21 @@ public class RelationalPlaceholderImpl extends TabPlaceholder implements Relatio
      *          Player the placeholder is displayed on
      * @param   value
      *          New value
+     * @param   updateParents
+     *          Whether parents should be updated or not
      * @return  {@code true} if value changed, {@code false} if not
      */
-    public boolean hasValueChanged(@NonNull TabPlayer viewer, @NonNull TabPlayer target, @Nullable String value) {
+    public boolean hasValueChanged(@NonNull TabPlayer viewer, @NonNull TabPlayer target, @Nullable String value, boolean updateParents) {
         if (value == null) return false; //bridge placeholders, they are updated using updateValue method
         String newValue = replacements.findReplacement(value);
         Map<TabPlayer, String> viewerMap = viewer.lastRelationalValues.computeIfAbsent(this, v -> Collections.synchronizedMap(new WeakHashMap<>()));
         if (!viewerMap.getOrDefault(target, identifier).equals(newValue)) {
             viewerMap.put(target, newValue);
-            updateParents(viewer);
-            updateParents(target);
+            markChanged(viewer, target);
+            if (updateParents) {
+                updateParents(viewer);
+                updateParents(target);
+            }
             return true;
         }
         return false;
@@ -90,11 +94,14 @@ public class RelationalPlaceholderImpl extends TabPlaceholder implements Relatio
 
     @Override
     public void updateFromNested(@NonNull TabPlayer viewer) {
-        Set<RefreshableFeature> usage = TAB.getInstance().getPlaceholderManager().getPlaceholderUsage(identifier);
+        RefreshableFeature[] usage = TAB.getInstance().getPlaceholderManager().getPlaceholderUsage(identifier);
+        viewer.relationalVersion.incrementAndGet(); // Nested placeholders of this player changed, which are applied on read
         for (TabPlayer target : TAB.getInstance().getOnlinePlayers()) {
             String value = request(viewer, target);
             String s = replacements.findReplacement(String.valueOf(value));
-            viewer.lastRelationalValues.computeIfAbsent(this, v -> Collections.synchronizedMap(new WeakHashMap<>())).put(target, s);
+            if (!s.equals(viewer.lastRelationalValues.computeIfAbsent(this, v -> Collections.synchronizedMap(new WeakHashMap<>())).put(target, s))) {
+                markChanged(viewer, target);
+            }
             if (!target.isLoaded()) return; // Updated on join
             for (RefreshableFeature f : usage) {
                 TimedCaughtTask task = new TimedCaughtTask(TAB.getInstance().getCpu(), () -> f.refresh(target, true),
@@ -120,6 +127,20 @@ public class RelationalPlaceholderImpl extends TabPlaceholder implements Relatio
         updateParents(viewer);
     }
 
+    /**
+     * Marks relational values of given players as changed to invalidate
+     * cached formats using them.
+     *
+     * @param   viewer
+     *          Viewer of the changed value
+     * @param   target
+     *          Target of the changed value
+     */
+    private void markChanged(@NotNull TabPlayer viewer, @NotNull TabPlayer target) {
+        viewer.relationalVersion.incrementAndGet();
+        if (target != viewer) target.relationalVersion.incrementAndGet();
+    }
+
     /**
      * Returns last known value for given players. First player is viewer,
      * second player is target.
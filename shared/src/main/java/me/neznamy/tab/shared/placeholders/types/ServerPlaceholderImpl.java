@@ -25,7 +25,7 @@ public class ServerPlaceholderImpl extends TabPlaceholder implements ServerPlace
     /** Last known output of the placeholder */
     @Getter
     @NotNull
-    private String lastValue = identifier;
+    private volatile String lastValue = identifier;
 
     /**
      * Constructs new instance with given parameters
@@ -69,17 +69,49 @@ public class ServerPlaceholderImpl extends TabPlaceholder implements ServerPlace
 
     public boolean hasValueChanged(@Nullable String value) {
         if (value == null) return false;
-        String newValue = setPlaceholders(replacements.findReplacement(value), null);
+        return applyValue(setPlaceholders(replacements.findReplacement(value), null));
+    }
 
-        if (!ERROR_VALUE.equals(newValue) && !identifier.equals(newValue) && !lastValue.equals(newValue)) {
-            lastValue = newValue;
-            for (TabPlayer player : TAB.getInstance().getOnlinePlayers()) {
-                updateParents(player);
-                TAB.getInstance().getPlaceholderManager().getTabExpansion().setPlaceholderValue(player, identifier, newValue);
-            }
-            return true;
+    /**
+     * Applies replacements and nested placeholders in placeholder output using their last known values
+     * without any side effects. This method is safe to call from placeholder refreshing workers.
+     *
+     * @param   value
+     *          Placeholder output
+     * @return  New value or {@code null} if it must be resolved in the main thread using {@link #hasValueChanged(String)}
+     */
+    @Nullable
+    public String resolveValue(@NotNull String value) {
+        return peekPlaceholders(replacements.findReplacement(value), null);
+    }
+
+    /**
+     * Returns {@code true} if given value resolved using {@link #resolveValue(String)} differs
+     * from last known value and should be applied, {@code false} if not.
+     *
+     * @param   newValue
+     *          Resolved value
+     * @return  {@code true} if value changed, {@code false} if not
+     */
+    public boolean isChanged(@NotNull String newValue) {
+        return !ERROR_VALUE.equals(newValue) && !identifier.equals(newValue) && !lastValue.equals(newValue);
+    }
+
+    /**
+     * Saves resolved value if it changed and updates parent placeholders and TAB's expansion.
+     *
+     * @param   newValue
+     *          Value with replacements and nested placeholders applied
+     * @return  {@code true} if value changed, {@code false} if not
+     */
+    public boolean applyValue(@NotNull String newValue) {
+        if (!isChanged(newValue)) return false;
+        lastValue = newValue;
+        for (TabPlayer player : TAB.getInstance().getOnlinePlayers()) {
+            updateParents(player);
+            TAB.getInstance().getPlaceholderManager().getTabExpansion().setPlaceholderValue(player, identifier, newValue);
         }
-        return false;
+        return true;
     }
 
     @Override
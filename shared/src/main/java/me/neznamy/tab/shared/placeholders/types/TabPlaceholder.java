@@ -11,9 +11,8 @@ import me.neznamy.tab.shared.platform.TabPlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * General collection of variables and functions shared between all placeholder types
@@ -41,7 +40,13 @@ public abstract class TabPlaceholder implements Placeholder {
      * mutual tracking allows faster parent placeholder changes when a nested
      * placeholder changed value.
      */
-    protected final List<String> parents = new ArrayList<>();
+    protected final CopyOnWriteArrayList<String> parents = new CopyOnWriteArrayList<>();
+
+    /**
+     * Thread affinity flag. If {@code true}, the placeholder is not thread-safe and
+     * is always refreshed from the same thread, even if parallel refreshing is enabled.
+     */
+    private final boolean singleThreaded;
 
     /**
      * Constructs new instance with given parameters and loads placeholder output replacements
@@ -59,6 +64,7 @@ public abstract class TabPlaceholder implements Placeholder {
             throw new IllegalArgumentException("Identifier must start and end with % (attempted to use \"" + identifier + "\")");
         this.identifier = identifier;
         this.refresh = refresh;
+        singleThreaded = TAB.getInstance().getConfiguration().getConfig().getPlaceholders().getSingleThreadedPlaceholders().contains(identifier);
         Map<Object, Object> map = TAB.getInstance().getConfiguration().getConfig().getReplacements().getValues().get(identifier);
         replacements = map == null ? PlaceholderReplacementPattern.EMPTY : PlaceholderReplacementPattern.create(identifier, map);
         for (String nested : replacements.getNestedPlaceholders()) {
@@ -123,6 +129,36 @@ public abstract class TabPlaceholder implements Placeholder {
         return replaced;
     }
 
+    /**
+     * Applies all nested placeholders in output using their last known values without any side
+     * effects, which makes it safe to call from placeholder refreshing workers. If a nested
+     * placeholder is not registered, does not have a value for the player yet or does not have
+     * this placeholder registered as a parent, {@code null} is returned and the output must be
+     * resolved using {@link #setPlaceholders(String, TabPlayer)} in the main thread instead.
+     *
+     * @param   text
+     *          replaced placeholder
+     * @param   p
+     *          player to replace for
+     * @return  text with replaced placeholders in output or {@code null} if it cannot be resolved
+     */
+    @Nullable
+    protected String peekPlaceholders(@NonNull String text, @Nullable TabPlayer p) {
+        if (identifier.equals(text) || text.indexOf('%') == -1) return text;
+        String replaced = text;
+        for (String s : PlaceholderManagerImpl.detectPlaceholders(text)) {
+            if (s.equals(identifier) || (identifier.startsWith("%sync:") && ("%" + identifier.substring(6)).equals(s)) || s.startsWith("%rel_")) continue;
+            TabPlaceholder nested = (TabPlaceholder) TAB.getInstance().getPlaceholderManager().getPlaceholderRaw(s);
+            if (nested == null || !nested.parents.contains(identifier)) return null;
+            String value = nested.peekLastValue(p);
+            if (value == null) return null;
+            String nestedValue = nested.peekPlaceholders(value, p);
+            if (nestedValue == null) return null;
+            replaced = replace(replaced, s, nestedValue);
+        }
+        return replaced;
+    }
+
     /**
      * Internal method used to mark placeholders as parents who use this placeholder
      * inside their outputs for faster updates.
@@ -131,7 +167,9 @@ public abstract class TabPlaceholder implements Placeholder {
      *          parent placeholder using this placeholder in output
      */
     public void addParent(@NonNull String parent) {
-        if (!parents.contains(parent)) parents.add(parent);
+        if (parents.addIfAbsent(parent)) {
+            TAB.getInstance().getPlaceholderManager().invalidateDependencyGraph();
+        }
     }
 
     /**
@@ -143,7 +181,7 @@ public abstract class TabPlaceholder implements Placeholder {
      */
     public void updateParents(@NonNull TabPlayer player) {
         if (parents.isEmpty()) return;
-        for (String id : new ArrayList<>(parents)) {
+        for (String id : parents) {
             TabPlaceholder pl = TAB.getInstance().getPlaceholderManager().getPlaceholder(id);
             pl.updateFromNested(player);
             pl.updateParents(player);
@@ -176,4 +214,16 @@ public abstract class TabPlaceholder implements Placeholder {
      */
     @NotNull
     public abstract String getLastValueSafe(@NotNull TabPlayer player);
+
+    /**
+     * Returns last known value of defined player without any side effects.
+     *
+     * @param   player
+     *          player to get value of
+     * @return  last known value for specified player or {@code null} if not initialized yet
+     */
+    @Nullable
+    public String peekLastValue(@Nullable TabPlayer player) {
+        return player == null ? getLastValue(null) : getLastValueSafe(player);
+    }
 }
\ No newline at end of file
@@ -28,12 +28,14 @@ import me.neznamy.tab.shared.features.sorting.Sorting;
 import me.neznamy.tab.shared.features.types.RefreshableFeature;
 import me.neznamy.tab.shared.hook.FloodgateHook;
 import net.luckperms.api.model.user.User;
+import net.luckperms.api.query.QueryOptions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Abstract class storing common variables and functions for player,
@@ -130,12 +132,21 @@ public abstract class TabPlayer implements me.neznamy.tab.api.TabPlayer {
     /** LuckPerms user for fast access */
     @Nullable public User luckPermsUser;
 
+    /** Cached LuckPerms query options, only used when listening to LuckPerms events to invalidate them */
+    @Nullable public QueryOptions luckPermsQueryOptions;
+
     /** Last known values for each player placeholder after applying replacements and nested placeholders */
     public final Map<PlayerPlaceholder, String> lastPlaceholderValues = new ConcurrentHashMap<>();
 
     /** Last known values for each relational placeholder after applying replacements and nested placeholders */
     public final Map<RelationalPlaceholder, Map<TabPlayer, String>> lastRelationalValues = new ConcurrentHashMap<>();
 
+    /**
+     * Version of relational placeholder values of this player, incremented every time a relational
+     * value where this player is viewer or target changes. Used to invalidate cached relational formats.
+     */
+    public final AtomicInteger relationalVersion = new AtomicInteger();
+
     /** Player's scoreboard */
     @Getter
     @NotNull
@@ -2,6 +2,9 @@ package me.neznamy.tab.shared.platform.decorators;
 
 import lombok.*;
 import me.neznamy.tab.shared.TAB;
+import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
+import me.neznamy.tab.shared.cpu.ThreadExecutor;
+import me.neznamy.tab.shared.cpu.TimedCaughtTask;
 import me.neznamy.chat.component.TabComponent;
 import me.neznamy.chat.TextColor;
 import me.neznamy.tab.shared.platform.Scoreboard;
@@ -18,7 +21,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Client crash when performing an invalid action (1.5 - 1.7)<p>
  * - Client crash on server switch before login packet is sent on BungeeCord (1.20.3+)<p>
  * - Disconnect with "Network Protocol Error" when performing an invalid action (1.20.5+)<p>
- * - Geyser console spam when performing an invalid action (Bedrock)
+ * - Geyser console spam when performing an invalid action (Bedrock)<p>
+ * Team, objective and score updates are not sent immediately, but queued and merged,
+ * so that multiple updates of the same team, objective or score requested within
+ * a single task only send one packet with the final state once the task finishes.
+ * Removing a score which was not sent yet only cancels its pending add.
  *
  * @param   <T>
  *          Platform's TabPlayer class
@@ -49,6 +56,28 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
     /** Registered teams */
     private final Map<String, Team> teams = new ConcurrentHashMap<>();
 
+    /**
+     * Reverse index of registered teams by their entries for constant time anti-override checks.
+     * Modified under lock together with {@link #teams}, but read without it from network threads.
+     */
+    private final Map<String, Team> teamsByEntry = new ConcurrentHashMap<>();
+
+    /** Objectives with update waiting to be sent */
+    private final Set<Objective> pendingObjectiveUpdates = new LinkedHashSet<>();
+
+    /** Scores with update waiting to be sent */
+    private final Set<Score> pendingScoreUpdates = new LinkedHashSet<>();
+
+    /** Newly added scores which were not sent yet, removing them does not need to send anything */
+    private final Set<Score> pendingScoreAdds = new HashSet<>();
+
+    /** Teams with update waiting to be sent */
+    private final Set<Team> pendingTeamUpdates = new LinkedHashSet<>();
+
+    /** Whether a task flushing pending updates was already submitted */
+    @Setter(AccessLevel.NONE)
+    private boolean flushScheduled;
+
     @Override
     public synchronized void registerObjective(@NonNull String objectiveName, @NonNull TabComponent title,
                                         @NonNull HealthDisplay display, @Nullable TabComponent numberFormat) {
@@ -82,6 +111,9 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
             error("Tried to unregister non-existing objective %s for player ", objectiveName);
             return;
         }
+        pendingObjectiveUpdates.remove(objective);
+        pendingScoreUpdates.removeIf(score -> score.getObjective() == objective);
+        pendingScoreAdds.removeIf(score -> score.getObjective() == objective);
         if (frozen) return;
         unregisterObjective(objective);
     }
@@ -96,7 +128,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         }
         objective.update(title, display, numberFormat);
         if (frozen) return;
-        updateObjective(objective);
+        queue(pendingObjectiveUpdates, objective);
     }
 
     @Override
@@ -111,11 +143,12 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         if (score == null) {
             score = new Score(objective, scoreHolder, value, displayName, numberFormat);
             objective.getScores().put(scoreHolder, score);
+            if (!frozen) pendingScoreAdds.add(score);
         } else {
             score.update(value, displayName, numberFormat);
         }
         if (frozen) return;
-        setScore(score);
+        queue(pendingScoreUpdates, score);
     }
 
     @Override
@@ -127,6 +160,8 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         }
         Score score = objective.getScores().remove(scoreHolder);
         if (score == null) return;
+        pendingScoreUpdates.remove(score);
+        if (pendingScoreAdds.remove(score)) return; // Never sent, the pending add is cancelled instead
         if (frozen) return;
         removeScore(score);
     }
@@ -143,6 +178,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         }
         Team team = new Team(createTeam(name), name, prefix, suffix, visibility, collision, players, options, color);
         teams.put(name, team);
+        indexEntries(team);
         if (frozen) return;
         registerTeam(team);
     }
@@ -154,6 +190,8 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
             error("Tried to unregister non-existing team %s for player ", teamName);
             return;
         }
+        unindexEntries(team);
+        pendingTeamUpdates.remove(team);
         if (frozen) return;
         unregisterTeam(team);
     }
@@ -169,7 +207,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         }
         team.update(prefix, suffix, visibility, collision, options, color);
         if (frozen) return;
-        updateTeam(team);
+        queue(pendingTeamUpdates, team);
     }
 
     @Override
@@ -178,7 +216,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         if (team == null) return;
         team.update(prefix, suffix, color);
         if (frozen) return;
-        updateTeam(team);
+        queue(pendingTeamUpdates, team);
     }
 
     @Override
@@ -187,7 +225,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         if (team == null) return;
         team.collision = collision;
         if (frozen) return;
-        updateTeam(team);
+        queue(pendingTeamUpdates, team);
     }
 
     @Override
@@ -196,7 +234,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         if (team == null) return;
         team.visibility = visibility;
         if (frozen) return;
-        updateTeam(team);
+        queue(pendingTeamUpdates, team);
     }
 
     @Override
@@ -209,6 +247,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
 
     @Override
     public synchronized void resend() {
+        clearPendingUpdates();
         for (Objective objective : objectives.values()) {
             registerObjective(objective);
             if (objective.getDisplaySlot() != null) {
@@ -241,10 +280,96 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
      */
     public synchronized void unregisterTeamSafe(@NonNull String teamName) {
         Team team = teams.remove(teamName);
-        if (team == null || frozen) return;
+        if (team == null) return;
+        unindexEntries(team);
+        pendingTeamUpdates.remove(team);
+        if (frozen) return;
         unregisterTeam(team);
     }
 
+    /**
+     * Sends all pending team, objective and score updates. This is called automatically
+     * once the task which requested the updates finishes, in the same thread, but platforms
+     * may call it earlier to send the updates together with other packets.
+     */
+    public synchronized void flush() {
+        flushScheduled = false;
+        if (frozen) {
+            // Everything will be resent once unfrozen
+            clearPendingUpdates();
+            return;
+        }
+        for (Objective objective : pendingObjectiveUpdates) {
+            updateObjective(objective);
+        }
+        for (Score score : pendingScoreUpdates) {
+            setScore(score);
+        }
+        for (Team team : pendingTeamUpdates) {
+            updateTeam(team);
+        }
+        clearPendingUpdates();
+    }
+
+    /**
+     * Adds an update into given queue and schedules a flush if it was not scheduled already.
+     * Updates already present in the queue are merged, since they always send current state.
+     *
+     * @param   queue
+     *          Queue to add the update into
+     * @param   element
+     *          Updated objective, score or team
+     * @param   <E>
+     *          Type of the updated element
+     */
+    private <E> void queue(@NonNull Set<E> queue, @NonNull E element) {
+        queue.add(element);
+        if (flushScheduled) return;
+        flushScheduled = true;
+        ThreadExecutor thread = ThreadExecutor.current();
+        if (thread != null) {
+            // Flush in the thread of the feature which requested the update, right after its task finishes
+            thread.execute(new TimedCaughtTask(TAB.getInstance().getCpu(), this::flush, "Scoreboard packets", CpuUsageCategory.SCOREBOARD_FLUSH));
+        } else {
+            TAB.getInstance().getCpu().runMeasuredTask("Scoreboard packets", CpuUsageCategory.SCOREBOARD_FLUSH, this::flush);
+        }
+    }
+
+    /**
+     * Discards all pending updates.
+     */
+    private void clearPendingUpdates() {
+        pendingObjectiveUpdates.clear();
+        pendingScoreUpdates.clear();
+        pendingScoreAdds.clear();
+        pendingTeamUpdates.clear();
+    }
+
+    /**
+     * Adds all entries of given team into the reverse entry index.
+     *
+     * @param   team
+     *          Team to index
+     */
+    private void indexEntries(@NonNull Team team) {
+        for (String entry : team.getPlayers()) {
+            teamsByEntry.put(entry, team);
+        }
+    }
+
+    /**
+     * Removes all entries of given team from the reverse entry index. Entries which
+     * were indexed under a different team in the meantime are left untouched.
+     *
+     * @param   team
+     *          Team to remove from index
+     */
+    private void unindexEntries(@NonNull Team team) {
+        for (String entry : team.getPlayers()) {
+            teamsByEntry.remove(entry, team);
+        }
+    }
+
     /**
      * Prints a debug message if attempted to perform an invalid operation.
      *
@@ -348,10 +473,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
 
     @Nullable
     private Team getExpectedTeam(@NotNull String player) {
-        for (Team team : teams.values()) {
-            if (team.getPlayers().contains(player)) return team;
-        }
-        return null;
+        return teamsByEntry.get(player);
     }
 
     /**
@@ -525,7 +647,7 @@ public abstract class SafeScoreboard<T extends TabPlayer> implements Scoreboard
         @NonNull private TabComponent suffix;
         @NonNull private NameVisibility visibility;
         @NonNull private CollisionRule collision;
-        @NonNull private Collection<String> players;
+        @Setter(AccessLevel.NONE) @NonNull private Collection<String> players;
         private int options;
         @NonNull private TextColor color;
 
@@ -0,0 +1,37 @@
+package me.neznamy.tab.shared.proxy;
+
+import me.neznamy.tab.shared.TAB;
+import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
+import me.neznamy.tab.shared.cpu.CpuManager;
+import me.neznamy.tab.shared.cpu.TimedCaughtTask;
+import me.neznamy.tab.shared.features.types.Loadable;
+import me.neznamy.tab.shared.features.types.TabFeature;
+import me.neznamy.tab.shared.platform.TabPlayer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Feature periodically requesting all checked permissions of players from bridge
+ * when permissions are checked on backend servers, keeping the proxy's mirror
+ * of permissions up to date. Permissions are also requested again on every server
+ * switch, so this only catches permission changes while staying on the same server
+ * and uses a much longer interval than regular permission refreshing.
+ */
+public class BridgePermissionRefresher extends TabFeature implements Loadable {
+
+    @Override
+    public void load() {
+        CpuManager cpu = TAB.getInstance().getCpu();
+        cpu.getGroupRefreshingThread().repeatTask(new TimedCaughtTask(cpu, () -> {
+            for (TabPlayer all : TAB.getInstance().getOnlinePlayers()) {
+                if (!((ProxyTabPlayer) all).isBridgeConnected()) continue; // Requested together with join message
+                ((ProxyTabPlayer) all).requestPermissions();
+            }
+        }, getFeatureName(), CpuUsageCategory.PERMISSION_REQUEST), TAB.getInstance().getConfiguration().getConfig().getBridgePermissionRefreshInterval());
+    }
+
+    @Override
+    @NotNull
+    public String getFeatureName() {
+        return "Permission refreshing";
+    }
+}
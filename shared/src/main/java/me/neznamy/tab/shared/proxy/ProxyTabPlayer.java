@@ -15,9 +15,13 @@ import me.neznamy.tab.shared.proxy.message.outgoing.PlayerJoin;
 import me.neznamy.tab.shared.task.PluginMessageEncodeTask;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Abstract class for player on proxy containing variables and methods
@@ -44,8 +48,23 @@ public abstract class ProxyTabPlayer extends TabPlayer {
     /** Player's gamemode */
     private int gamemode;
 
-    /** Map of player's requested permissions */
-    private final Map<String, Boolean> permissions = new HashMap<>();
+    /** Map of player's requested permissions as last reported by bridge */
+    private final Map<String, Boolean> permissions = new ConcurrentHashMap<>();
+
+    /** Permission nodes which were checked and are requested from bridge on server switch and periodically */
+    private final Set<String> permissionSubscriptions = ConcurrentHashMap.newKeySet();
+
+    /** Flag whether bridge on player's current server accepts batched plugin message frames */
+    private volatile boolean bridgeBatching;
+
+    /** Sequence number of the last join message, increased on every server switch */
+    private volatile int joinSequence;
+
+    /** Plugin messages waiting to be encoded and sent */
+    private final Queue<OutgoingMessage> pluginMessageQueue = new ConcurrentLinkedQueue<>();
+
+    /** Flag whether a task sending queued plugin messages was already submitted */
+    private final AtomicBoolean pluginMessageFlushScheduled = new AtomicBoolean();
 
     /**
      * Constructs new instance with given parameters and sends a message
@@ -76,19 +95,36 @@ public abstract class ProxyTabPlayer extends TabPlayer {
      */
     public void sendJoinPluginMessage() {
         bridgeConnected = false; // Reset on server switch
+        bridgeBatching = false; // New server may run a different bridge version
         sendPluginMessage(new PlayerJoin(
                 TAB.getInstance().getGroupManager().getPermissionPlugin().contains("Vault") &&
                     !TAB.getInstance().getConfiguration().getConfig().isGroupsByPermissions(),
                 TAB.getInstance().getPlaceholderManager().getBridgePlaceholders(),
-                TAB.getInstance().getConfiguration().getConfig().getReplacements().getValues()
+                TAB.getInstance().getConfiguration().getConfig().getReplacements().getValues(),
+                ++joinSequence
         ));
         TabExpansion expansion = TAB.getInstance().getPlaceholderManager().getTabExpansion();
         if (expansion instanceof ProxyTabExpansion) {
             ((ProxyTabExpansion) expansion).resendAllValues(this);
         }
+        requestPermissions();
         bridgeRequestTime = System.currentTimeMillis();
     }
 
+    /**
+     * Processes capabilities announced by bridge in response to a join message. Announcements
+     * answering an older join message, such as from the previous server, are ignored.
+     *
+     * @param   joinSequence
+     *          Sequence number of the join message bridge responded to
+     * @param   batching
+     *          Whether bridge accepts batched plugin message frames
+     */
+    public void onBridgeCapabilities(int joinSequence, boolean batching) {
+        if (joinSequence != this.joinSequence) return;
+        bridgeBatching = batching;
+    }
+
     /**
      * Sets permission presence status to provided value
      *
@@ -101,6 +137,17 @@ public abstract class ProxyTabPlayer extends TabPlayer {
         permissions.put(permission, value);
     }
 
+    /**
+     * Requests values of all checked permission nodes from bridge. Every node is sent
+     * as a separate plugin message, they are only merged into a single batched frame
+     * if bridge on player's current server announced support for it.
+     */
+    public void requestPermissions() {
+        for (String permission : permissionSubscriptions) {
+            sendPluginMessage(new PermissionRequest(permission));
+        }
+    }
+
     /**
      * Updates player's tracked gamemode for internal logic and placeholders.
      *
@@ -151,20 +198,27 @@ public abstract class ProxyTabPlayer extends TabPlayer {
     @Override
     public boolean hasPermission(@NotNull String permission) {
         if (TAB.getInstance().getConfiguration().getConfig().isBukkitPermissions()) {
-            sendPluginMessage(new PermissionRequest(permission));
-            return permissions != null && permissions.getOrDefault(permission, false);
+            // Called from superclass constructor before fields are initialized, bridge is not ready yet anyway
+            if (permissions == null || permissionSubscriptions == null) return false;
+            // Only request the node on first check, then it is refreshed on server switch and periodically with other nodes
+            if (permissionSubscriptions.add(permission)) sendPluginMessage(new PermissionRequest(permission));
+            return permissions.getOrDefault(permission, false);
         }
         return hasPermission0(permission);
     }
 
     /**
-     * Sends plugin message to the player.
+     * Queues plugin message to be sent to the player. All messages queued before
+     * the encoding thread gets to them are sent together.
      *
      * @param   message
      *          Plugin message to send
      */
     public void sendPluginMessage(@NotNull OutgoingMessage message) {
-        CpuManager.getPluginMessageEncodeThread().execute(new PluginMessageEncodeTask(this, message));
+        pluginMessageQueue.add(message);
+        if (pluginMessageFlushScheduled.compareAndSet(false, true)) {
+            CpuManager.getPluginMessageEncodeThread().execute(new PluginMessageEncodeTask(this));
+        }
     }
 
     @Override
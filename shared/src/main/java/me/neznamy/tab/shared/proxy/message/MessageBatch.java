@@ -0,0 +1,134 @@
+package me.neznamy.tab.shared.proxy.message;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Frame format packing multiple encoded plugin messages into a single plugin message.
+ * The frame consists of a flag whether the payload is compressed, amount of messages
+ * and the payload itself, which is a sequence of length-prefixed messages. Payloads
+ * larger than {@link #COMPRESSION_THRESHOLD} bytes are compressed using deflate.
+ */
+@SuppressWarnings("UnstableApiUsage")
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MessageBatch {
+
+    /** Minimum payload size in bytes for compression to be worth it */
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    /** Maximum accepted uncompressed payload size to prevent decompression bombs */
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Writes given encoded messages into the output as a single frame.
+     *
+     * @param   out
+     *          Output to write the frame to
+     * @param   messages
+     *          Encoded messages to pack
+     */
+    public static void write(@NotNull ByteArrayDataOutput out, @NotNull List<byte[]> messages) {
+        ByteArrayDataOutput payload = ByteStreams.newDataOutput();
+        for (byte[] message : messages) {
+            payload.writeInt(message.length);
+            payload.write(message);
+        }
+        byte[] bytes = payload.toByteArray();
+        boolean compress = bytes.length >= COMPRESSION_THRESHOLD;
+        out.writeBoolean(compress);
+        out.writeInt(messages.size());
+        if (compress) {
+            byte[] compressed = compress(bytes);
+            out.writeInt(bytes.length);
+            out.writeInt(compressed.length);
+            out.write(compressed);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a frame written by {@link #write(ByteArrayDataOutput, List)} and returns
+     * all encoded messages it contains.
+     *
+     * @param   in
+     *          Input to read the frame from
+     * @return  Encoded messages contained in the frame
+     * @throws  IllegalArgumentException
+     *          If the frame is malformed
+     */
+    @NotNull
+    public static List<byte[]> read(@NotNull ByteArrayDataInput in) {
+        boolean compressed = in.readBoolean();
+        int count = in.readInt();
+        int length = in.readInt();
+        if (length < 0 || length > MAX_PAYLOAD_SIZE) throw new IllegalArgumentException("Invalid batch payload length " + length);
+        byte[] payload;
+        if (compressed) {
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            payload = decompress(data, length);
+        } else {
+            payload = new byte[length];
+            in.readFully(payload);
+        }
+        ByteArrayDataInput payloadIn = ByteStreams.newDataInput(payload);
+        List<byte[]> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] message = new byte[payloadIn.readInt()];
+            payloadIn.readFully(message);
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    @NotNull
+    private static byte[] compress(@NotNull byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @NotNull
+    private static byte[] decompress(@NotNull byte[] bytes, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            byte[] result = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(result, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += n;
+            }
+            if (read != length) throw new IllegalArgumentException("Batch payload length mismatch (expected " + length + ", got " + read + ")");
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Malformed compressed batch payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package me.neznamy.tab.shared.proxy.message.incoming;
+
+import com.google.common.io.ByteArrayDataInput;
+import me.neznamy.tab.shared.proxy.ProxyTabPlayer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Message sent by bridge in response to join message announcing features it supports.
+ * Bridges which do not send it only receive messages in the original format.
+ */
+public class BridgeCapabilities implements IncomingMessage {
+
+    /** Flag for accepting batched plugin message frames */
+    private static final int BATCHING = 1;
+
+    private int joinSequence;
+    private int flags;
+
+    @Override
+    public void read(@NotNull ByteArrayDataInput in) {
+        joinSequence = in.readInt();
+        flags = in.readInt();
+    }
+
+    @Override
+    public void process(@NotNull ProxyTabPlayer player) {
+        player.onBridgeCapabilities(joinSequence, (flags & BATCHING) != 0);
+    }
+}
@@ -16,6 +16,9 @@ public class PlayerJoin implements OutgoingMessage {
     private Map<String, Integer> placeholders;
     private Map<String, Map<Object, Object>> replacements;
 
+    /** Sequence number of this join, echoed back by bridge in {@code BridgeCapabilities} */
+    private int joinSequence;
+
     @Override
     @NotNull
     public ByteArrayDataOutput write() {
@@ -38,6 +41,7 @@ public class PlayerJoin implements OutgoingMessage {
             }
         }
         out.writeBoolean(false); // Deleted unlimited nametags
+        out.writeInt(joinSequence); // Read only by bridges announcing their capabilities
         return out;
     }
 }
@@ -6,7 +6,9 @@ import lombok.RequiredArgsConstructor;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
 import me.neznamy.tab.shared.proxy.ProxyTabPlayer;
+import me.neznamy.tab.shared.proxy.message.MessageBatch;
 import me.neznamy.tab.shared.proxy.message.incoming.*;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.UUID;
 import java.util.function.Supplier;
@@ -30,9 +32,16 @@ public class PluginMessageDecodeTask implements Runnable {
             Vanished::new,
             UpdatePlaceholder::new,
             PlayerJoinResponse::new,
-            RegisterPlaceholder::new
+            RegisterPlaceholder::new,
+            BridgeCapabilities::new
     };
 
+    /**
+     * Id of a batched frame containing multiple messages, placed right after all registered messages.
+     * Outgoing messages are only batched once bridge announces it in {@link BridgeCapabilities}.
+     */
+    private static final int BATCH_ID = registeredMessages.length;
+
     /** UUID of player who received this plugin message */
     private final UUID playerId;
 
@@ -43,8 +52,32 @@ public class PluginMessageDecodeTask implements Runnable {
     public void run() {
         ProxyTabPlayer player = (ProxyTabPlayer) TAB.getInstance().getPlayer(playerId);
         if (player == null) return;
+        decode(player, bytes, false);
+    }
+
+    /**
+     * Decodes a single message or a batched frame and submits decoded messages for processing in order.
+     *
+     * @param   player
+     *          Player who received the message
+     * @param   bytes
+     *          Message bytes
+     * @param   batched
+     *          Whether the message is contained in a batched frame
+     * @throws  IllegalArgumentException
+     *          If a batched frame contains another batched frame
+     */
+    private void decode(@NotNull ProxyTabPlayer player, byte[] bytes, boolean batched) {
         ByteArrayDataInput in = ByteStreams.newDataInput(bytes);
-        Supplier<IncomingMessage> supplier = registeredMessages[in.readByte()];
+        int id = in.readByte();
+        if (id == BATCH_ID) {
+            if (batched) throw new IllegalArgumentException("Nested batch frames are not allowed");
+            for (byte[] message : MessageBatch.read(in)) {
+                decode(player, message, true);
+            }
+            return;
+        }
+        Supplier<IncomingMessage> supplier = registeredMessages[id];
         IncomingMessage msg = supplier.get();
         msg.read(in);
         TAB.getInstance().getCpu().runMeasuredTask("Plugin message handling", CpuUsageCategory.PLUGIN_MESSAGE_PROCESS, new PluginMessageProcessTask(msg, player));
@@ -1,30 +1,51 @@
 package me.neznamy.tab.shared.task;
 
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
 import lombok.RequiredArgsConstructor;
 import me.neznamy.tab.shared.TAB;
 import me.neznamy.tab.shared.TabConstants.CpuUsageCategory;
 import me.neznamy.tab.shared.proxy.ProxyTabPlayer;
+import me.neznamy.tab.shared.proxy.message.MessageBatch;
 import me.neznamy.tab.shared.proxy.message.outgoing.OutgoingMessage;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Task for encoding and sending plugin message to a player.
+ * Task for encoding and sending all plugin messages queued for a player.
+ * If the player's bridge supports batched frames, all queued messages are
+ * sent as a single plugin message, otherwise they are sent one by one.
  */
 @RequiredArgsConstructor
+@SuppressWarnings("UnstableApiUsage")
 public class PluginMessageEncodeTask implements Runnable {
 
-    /** Player to send plugin message to */
+    /** Player to send queued plugin messages to */
     private final ProxyTabPlayer player;
 
-    /** Plugin message to encode and send */
-    private final OutgoingMessage message;
-
     @Override
     public void run() {
         long time = System.nanoTime();
-        byte[] msg = message.write().toByteArray();
+        List<byte[]> messages = new ArrayList<>();
+        OutgoingMessage message;
+        player.getPluginMessageFlushScheduled().set(false);
+        while ((message = player.getPluginMessageQueue().poll()) != null) {
+            messages.add(message.write().toByteArray());
+        }
+        if (messages.isEmpty()) return;
+        if (messages.size() > 1 && player.isBridgeBatching()) {
+            ByteArrayDataOutput out = ByteStreams.newDataOutput();
+            out.writeUTF("Batch");
+            MessageBatch.write(out, messages);
+            messages.clear();
+            messages.add(out.toByteArray());
+        }
         TAB.getInstance().getCpu().addTime("Plugin message handling", CpuUsageCategory.PLUGIN_MESSAGE_ENCODE, System.nanoTime() - time);
         time = System.nanoTime();
-        player.sendPluginMessage(msg);
+        for (byte[] msg : messages) {
+            player.sendPluginMessage(msg);
+        }
         TAB.getInstance().getCpu().addTime("Plugin message handling", CpuUsageCategory.PLUGIN_MESSAGE_SEND, System.nanoTime() - time);
     }
 }
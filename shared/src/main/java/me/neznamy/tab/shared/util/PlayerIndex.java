@@ -0,0 +1,181 @@
+package me.neznamy.tab.shared.util;
+
+import lombok.NonNull;
+import me.neznamy.tab.shared.data.Server;
+import me.neznamy.tab.shared.data.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Index of players partitioned by their server and world. Each partition is stored
+ * as an immutable array which is replaced on every change, so reading is lock-free
+ * and returned arrays can be safely iterated while players move.
+ *
+ * @param   <T>
+ *          Player type
+ */
+public class PlayerIndex<T> {
+
+    /** Function creating player arrays of given size */
+    @NotNull private final IntFunction<T[]> arrayFactory;
+
+    /** Empty array returned for partitions without players */
+    @NotNull private final T[] empty;
+
+    /** Players by server */
+    @NotNull private final Map<Server, T[]> byServer = new ConcurrentHashMap<>();
+
+    /** Players by server and world */
+    @NotNull private final Map<Server, Map<World, T[]>> byWorld = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs new instance with given array factory.
+     *
+     * @param   arrayFactory
+     *          Function creating player arrays of given size
+     */
+    public PlayerIndex(@NonNull IntFunction<T[]> arrayFactory) {
+        this.arrayFactory = arrayFactory;
+        empty = arrayFactory.apply(0);
+    }
+
+    /**
+     * Adds player to partitions of given server and world.
+     *
+     * @param   player
+     *          Player to add
+     * @param   server
+     *          Player's server
+     * @param   world
+     *          Player's world or {@code null} if not tracked
+     */
+    public synchronized void add(@NonNull T player, @Nullable Server server, @Nullable World world) {
+        if (server == null) return;
+        byServer.put(server, append(byServer.getOrDefault(server, empty), player));
+        if (world == null) return;
+        Map<World, T[]> worlds = byWorld.computeIfAbsent(server, s -> new ConcurrentHashMap<>());
+        worlds.put(world, append(worlds.getOrDefault(world, empty), player));
+    }
+
+    /**
+     * Removes player from partitions of given server and world.
+     *
+     * @param   player
+     *          Player to remove
+     * @param   server
+     *          Server the player was added with
+     * @param   world
+     *          World the player was added with or {@code null} if not tracked
+     */
+    public synchronized void remove(@NonNull T player, @Nullable Server server, @Nullable World world) {
+        if (server == null) return;
+        T[] players = without(byServer.getOrDefault(server, empty), player);
+        if (players.length == 0) {
+            byServer.remove(server);
+        } else {
+            byServer.put(server, players);
+        }
+        if (world == null) return;
+        Map<World, T[]> worlds = byWorld.get(server);
+        if (worlds == null) return;
+        players = without(worlds.getOrDefault(world, empty), player);
+        if (players.length == 0) {
+            worlds.remove(world);
+        } else {
+            worlds.put(world, players);
+        }
+    }
+
+    /**
+     * Moves player from one partition to another.
+     *
+     * @param   player
+     *          Player to move
+     * @param   fromServer
+     *          Previous server
+     * @param   fromWorld
+     *          Previous world or {@code null} if not tracked
+     * @param   toServer
+     *          New server
+     * @param   toWorld
+     *          New world or {@code null} if not tracked
+     */
+    public synchronized void move(@NonNull T player, @Nullable Server fromServer, @Nullable World fromWorld,
+                                  @Nullable Server toServer, @Nullable World toWorld) {
+        remove(player, fromServer, fromWorld);
+        add(player, toServer, toWorld);
+    }
+
+    /**
+     * Removes all players from the index.
+     */
+    public synchronized void clear() {
+        byServer.clear();
+        byWorld.clear();
+    }
+
+    /**
+     * Returns all players on given server. The returned array must not be modified.
+     *
+     * @param   server
+     *          Server to get players of
+     * @return  Players on given server
+     */
+    @NotNull
+    public T[] getPlayers(@NonNull Server server) {
+        return byServer.getOrDefault(server, empty);
+    }
+
+    /**
+     * Returns all players in given world of given server. The returned array must not be modified.
+     *
+     * @param   server
+     *          Server to get players of
+     * @param   world
+     *          World to get players of
+     * @return  Players in given world of given server
+     */
+    @NotNull
+    public T[] getPlayers(@NonNull Server server, @NonNull World world) {
+        return byWorld.getOrDefault(server, Collections.emptyMap()).getOrDefault(world, empty);
+    }
+
+    /**
+     * Returns amount of players on given server.
+     *
+     * @param   server
+     *          Server to get player count of
+     * @return  Amount of players on given server
+     */
+    public int getCount(@NonNull Server server) {
+        return getPlayers(server).length;
+    }
+
+    @NotNull
+    private T[] append(@NotNull T[] players, @NotNull T player) {
+        for (T existing : players) {
+            if (existing == player) return players;
+        }
+        T[] result = Arrays.copyOf(players, players.length + 1);
+        result[players.length] = player;
+        return result;
+    }
+
+    @NotNull
+    private T[] without(@NotNull T[] players, @NotNull T player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] != player) continue;
+            T[] result = arrayFactory.apply(players.length - 1);
+            System.arraycopy(players, 0, result, 0, i);
+            System.arraycopy(players, i + 1, result, i, players.length - i - 1);
+            return result;
+        }
+        return players;
+    }
+}
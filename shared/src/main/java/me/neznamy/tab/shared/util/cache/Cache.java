@@ -1,29 +1,75 @@
 package me.neznamy.tab.shared.util.cache;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import me.neznamy.tab.shared.TAB;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
  * Cache to save resources when converting the same values over and over.
+ * <p>
+ * Lookups are lock-free and safe to perform from multiple threads. Once the cache
+ * reaches its size limit, entries are evicted one by one using segmented LRU policy
+ * with second-chance (CLOCK) approximation of recency. New entries are placed into
+ * probation segment and only get promoted into protected segment if they are accessed
+ * again before being evicted, which prevents one-time values from flushing frequently
+ * used ones. Hits, misses and evictions are counted and displayed in /tab cpu.
  *
  * @param   <K>
  *          Source to convert from
  * @param   <V>
  *          Target to convert to
  */
-@RequiredArgsConstructor
 public class Cache<K, V> {
 
-    private int accessCount;
-    private final String name;
+    /** All created caches by name for displaying statistics, newer caches replace older ones with the same name */
+    private static final Map<String, Cache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    /** Share of the cache size reserved for protected segment */
+    private static final float PROTECTED_RATIO = 0.8f;
+
+    @Getter private final String name;
     private final int cacheSize;
-    private final Function<K, V> function;
-    private final Map<K, V> cache = new HashMap<>();
+    private final int protectedSize;
+    @Nullable private final Function<K, V> function;
+    private final Map<K, Entry<V>> cache = new ConcurrentHashMap<>();
+
+    /** Keys in probation segment in insertion order, guarded by {@code this} */
+    private final ArrayDeque<K> probation = new ArrayDeque<>();
+
+    /** Keys in protected segment in promotion order, guarded by {@code this} */
+    private final ArrayDeque<K> protectedSegment = new ArrayDeque<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs new instance with given parameters.
+     *
+     * @param   name
+     *          Cache name
+     * @param   cacheSize
+     *          Size limit of the cache
+     * @param   function
+     *          Function for converting values not present in the cache,
+     *          {@code null} if values will only be inserted using {@link #intern(Object, Object)}
+     */
+    public Cache(@NotNull String name, int cacheSize, @Nullable Function<K, V> function) {
+        this.name = name;
+        this.cacheSize = cacheSize;
+        this.protectedSize = (int) (cacheSize * PROTECTED_RATIO);
+        this.function = function;
+        caches.put(name, this);
+    }
 
     /**
      * Gets value from cache. If not present, it is created using given function, inserted
@@ -34,14 +80,134 @@ public class Cache<K, V> {
      * @return  Converted value
      */
     @NotNull
-    public synchronized V get(@NotNull K key) {
-        accessCount++;
-        if (cache.size() > cacheSize) {
-            float efficiency = (float) (accessCount-cacheSize) / accessCount;
-            TAB.getInstance().debug("Clearing " + name + " cache due to limit (efficiency " + efficiency*100 + "% with " + accessCount + " accesses)");
-            accessCount = 0;
-            cache.clear();
+    public V get(@NotNull K key) {
+        if (function == null) throw new IllegalStateException("Cache " + name + " has no conversion function");
+        Entry<V> entry = cache.get(key);
+        if (entry != null) {
+            hits.increment();
+            entry.accessed = true;
+            return entry.value;
+        }
+        misses.increment();
+        return insert(key, function.apply(key));
+    }
+
+    /**
+     * Returns value already cached under given key. If not present, given value
+     * is inserted into the cache and returned.
+     *
+     * @param   key
+     *          Key of the value
+     * @param   value
+     *          Value to cache if no value is cached under given key yet
+     * @return  Value cached under given key
+     */
+    @NotNull
+    public V intern(@NotNull K key, @NotNull V value) {
+        Entry<V> entry = cache.get(key);
+        if (entry != null) {
+            hits.increment();
+            entry.accessed = true;
+            return entry.value;
         }
-        return cache.computeIfAbsent(key, function);
+        misses.increment();
+        return insert(key, value);
+    }
+
+    /**
+     * Inserts value into the cache unless another thread inserted a value under the same key
+     * in the meantime and evicts entries if size limit was exceeded.
+     *
+     * @param   key
+     *          Key of the value
+     * @param   value
+     *          Value to insert
+     * @return  Value cached under given key
+     */
+    @NotNull
+    private synchronized V insert(@NotNull K key, @NotNull V value) {
+        Entry<V> existing = cache.get(key);
+        if (existing != null) return existing.value; // Inserted by another thread in the meantime
+        cache.put(key, new Entry<>(value));
+        probation.addLast(key);
+        while (cache.size() > cacheSize && !probation.isEmpty()) {
+            evict();
+        }
+        return value;
+    }
+
+    /**
+     * Evicts one entry from probation segment. Entries which were accessed since
+     * insertion are given a second chance by promoting them into protected segment.
+     * If protected segment is full, its oldest entry is moved back to probation.
+     */
+    private void evict() {
+        K key = probation.pollFirst();
+        Entry<V> entry = cache.get(key);
+        if (entry.accessed) {
+            entry.accessed = false;
+            protectedSegment.addLast(key);
+            if (protectedSegment.size() > protectedSize) {
+                K demoted = protectedSegment.pollFirst();
+                cache.get(demoted).accessed = false;
+                probation.addLast(demoted);
+            }
+            return;
+        }
+        cache.remove(key);
+        evictions.increment();
+    }
+
+    /**
+     * Returns amount of lookups which found the value in the cache.
+     *
+     * @return  Amount of cache hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns amount of lookups which had to convert the value.
+     *
+     * @return  Amount of cache misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns amount of entries evicted due to size limit.
+     *
+     * @return  Amount of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns all created caches for displaying their statistics.
+     *
+     * @return  All created caches
+     */
+    @NotNull
+    public static Collection<Cache<?, ?>> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    /**
+     * Cached value with access flag for second-chance eviction.
+     *
+     * @param   <V>
+     *          Value type
+     */
+    @RequiredArgsConstructor
+    private static class Entry<V> {
+
+        /** Cached value */
+        private final V value;
+
+        /** Whether the entry was accessed since it was inserted or last considered for eviction */
+        private volatile boolean accessed;
     }
 }
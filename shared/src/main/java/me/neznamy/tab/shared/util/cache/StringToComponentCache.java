@@ -26,6 +26,13 @@ public class StringToComponentCache extends Cache<String, TabComponent> {
 
     private static final Pattern tabToKyori = Pattern.compile("(?<!:)(#([0-9A-Fa-f]{6}))(?![:>])");
 
+    /**
+     * Components shared by all caches, keyed by their canonical tree. Identical texts converted by
+     * different caches (or again after eviction) resolve into the same instance, so platform
+     * conversions cached inside the component are only computed once per distinct text.
+     */
+    private static final Cache<String, TabComponent> interned = new Cache<>("Interned components", 5000, null);
+
     /**
      * Constructs new instance with given parameters.
      *
@@ -35,35 +42,60 @@ public class StringToComponentCache extends Cache<String, TabComponent> {
      *          Size limit of the cache
      */
     public StringToComponentCache(String name, int cacheSize) {
-        super(name, cacheSize, text -> {
-            if (MiniMessageHook.isAvailable() && text.indexOf('<') != -1) { // User may have wanted to use MiniMessage
+        super(name, cacheSize, text -> intern(convert(text)));
+    }
+
+    /**
+     * Returns shared instance of a component identical to the given one. Components converted
+     * from Adventure are returned as-is, as their canonical key does not include events.
+     *
+     * @param   component
+     *          Component to intern
+     * @return  Shared instance of identical component
+     */
+    @NotNull
+    public static TabComponent intern(@NotNull TabComponent component) {
+        if (component.hasAdventureComponent()) return component;
+        return interned.intern(component.toCanonicalKey(), component);
+    }
 
-                // Reformat gradients and RGB to kyori format
-                String mmFormatted = RGBUtils.getInstance().applyFormats(text, kyoriGradientFormatter, kyoriRGBFormatter);
+    /**
+     * Converts text into a component, using MiniMessage if available and the text
+     * appears to use it.
+     *
+     * @param   text
+     *          Text to convert
+     * @return  Converted component
+     */
+    @NotNull
+    private static TabComponent convert(@NotNull String text) {
+        if (MiniMessageHook.isAvailable() && text.indexOf('<') != -1) { // User may have wanted to use MiniMessage
 
-                // Convert legacy codes into kyori format
-                for (TextColor format : TextColor.LEGACY_COLORS.values()) {
-                    String sequence = "§" + format.getLegacyColor().getCharacter();
-                    if (mmFormatted.contains(sequence)) {
-                        String colorName = format == TextColor.UNDERLINE ? "underlined" : format.getLegacyColor().name().toLowerCase(Locale.US);
-                        if (format.getLegacyColor().isColor()) {
-                            mmFormatted = mmFormatted.replace(sequence, "<bold:false><italic:false><underlined:false><strikethrough:false><obfuscated:false><" + colorName + ">");
-                        } else {
-                            mmFormatted = mmFormatted.replace(sequence, "<" + colorName + ">");
-                        }
+            // Reformat gradients and RGB to kyori format
+            String mmFormatted = RGBUtils.getInstance().applyFormats(text, kyoriGradientFormatter, kyoriRGBFormatter);
+
+            // Convert legacy codes into kyori format
+            for (TextColor format : TextColor.LEGACY_COLORS.values()) {
+                String sequence = "§" + format.getLegacyColor().getCharacter();
+                if (mmFormatted.contains(sequence)) {
+                    String colorName = format == TextColor.UNDERLINE ? "underlined" : format.getLegacyColor().name().toLowerCase(Locale.US);
+                    if (format.getLegacyColor().isColor()) {
+                        mmFormatted = mmFormatted.replace(sequence, "<bold:false><italic:false><underlined:false><strikethrough:false><obfuscated:false><" + colorName + ">");
+                    } else {
+                        mmFormatted = mmFormatted.replace(sequence, "<" + colorName + ">");
                     }
                 }
+            }
 
-                // Convert TAB's #RRGGBB to Kyori <color:#RRGGBB>
-                mmFormatted = tabToKyori(mmFormatted);
+            // Convert TAB's #RRGGBB to Kyori <color:#RRGGBB>
+            mmFormatted = tabToKyori(mmFormatted);
 
-                TabComponent component = MiniMessageHook.parseText(mmFormatted);
-                if (component != null) return component;
-            }
-            return text.contains("#") || text.contains("§x") || text.contains("<") ?
-                    TabComponent.fromColoredText(text) : //contains RGB colors or font
-                    TabComponent.legacyText(text); //no RGB
-        });
+            TabComponent component = MiniMessageHook.parseText(mmFormatted);
+            if (component != null) return component;
+        }
+        return text.contains("#") || text.contains("§x") || text.contains("<") ?
+                TabComponent.fromColoredText(text) : //contains RGB colors or font
+                TabComponent.legacyText(text); //no RGB
     }
 
     @NotNull